@@ -28,6 +28,10 @@ public final class ByteString {
         return Byte.toUnsignedInt(bytes[index]);
     }
 
+    public byte[] toByteArray() {
+        return bytes.clone();
+    }
+
     public long bytesInRange(int fromIndex, int toIndex) {
         Objects.checkFromToIndex(fromIndex, toIndex, bytes.length);
         Preconditions.checkArgument(toIndex - fromIndex < Long.BYTES);
@@ -1,21 +1,42 @@
 package ch.epfl.javions;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
 public final class Crc24 {
     public static final int GENERATOR = 0xff_f4_09;
 
     private static final int CRC_BITS = 24;
+    private static final int CRC_MASK = (1 << CRC_BITS) - 1;
+
+    // Slicing-by-8: table k gives the CRC of a byte followed by k zero bytes, which allows
+    // processing 8 bytes with 8 independent lookups.
+    private static final int SLICES = Long.BYTES;
+    private static final int TABLE_SIZE = 1 << Byte.SIZE;
+
+    private static final VarHandle LONG_BE =
+            MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
 
-    private final int[] table;
+    // The SLICES tables, one after the other.
+    private final int[] tables;
 
     public Crc24(int generator) {
-        this.table = buildTable(generator);
+        this.tables = buildTables(generator);
     }
 
-    private static int[] buildTable(int generator) {
-        var table = new int[1 << Byte.SIZE];
-        for (var i = 0; i < table.length; i++)
-            table[i] = crc_bitwise(generator, new byte[]{(byte) i});
-        return table;
+    private static int[] buildTables(int generator) {
+        var tables = new int[SLICES * TABLE_SIZE];
+        for (var i = 0; i < TABLE_SIZE; i++)
+            tables[i] = crc_bitwise(generator, new byte[]{(byte) i});
+        for (var k = 1; k < SLICES; k += 1) {
+            for (var i = 0; i < TABLE_SIZE; i += 1) {
+                var previous = tables[(k - 1) * TABLE_SIZE + i];
+                tables[k * TABLE_SIZE + i] = updateByte(tables, previous, 0);
+            }
+        }
+        return tables;
     }
 
     private static int crc_bitwise(int generator, byte[] bytes) {
@@ -35,15 +56,61 @@ public final class Crc24 {
     }
 
     public int crc(byte[] bytes) {
-        var crc = 0;
-        for (var b : bytes) {
-            var topByte = Bits.extractUInt(crc, CRC_BITS - Byte.SIZE, Byte.SIZE);
-            crc = ((crc << Byte.SIZE) | Byte.toUnsignedInt(b)) ^ table[topByte];
-        }
-        for (var i = 0; i < CRC_BITS / Byte.SIZE; i += 1) {
-            var topByte = Bits.extractUInt(crc, CRC_BITS - Byte.SIZE, Byte.SIZE);
-            crc = (crc << Byte.SIZE) ^ table[topByte];
+        return crc(bytes, 0, bytes.length);
+    }
+
+    // Returns the CRC of the bytes of the given array between fromIndex (inclusive) and
+    // toIndex (exclusive).
+    public int crc(byte[] bytes, int fromIndex, int toIndex) {
+        Objects.checkFromToIndex(fromIndex, toIndex, bytes.length);
+
+        // Zero bytes at the start of a message don't change its CRC, so the first word is made
+        // of the first (length % 8) bytes preceded by zeros, and the others are complete.
+        var headSize = (toIndex - fromIndex) % SLICES;
+        var i = fromIndex + headSize;
+        long head;
+        if (toIndex - fromIndex >= SLICES) {
+            head = headSize == 0 ? 0 : (long) LONG_BE.get(bytes, fromIndex) >>> ((SLICES - headSize) * Byte.SIZE);
+        } else {
+            head = 0;
+            for (var j = fromIndex; j < i; j += 1) head = (head << Byte.SIZE) | Byte.toUnsignedLong(bytes[j]);
         }
-        return Bits.extractUInt(crc, 0, CRC_BITS);
+
+        var crc = updateWord(0, head);
+        for (; i < toIndex; i += SLICES)
+            crc = updateWord(crc, (long) LONG_BE.get(bytes, i));
+        return crc;
+    }
+
+    // Returns the CRC of the 8 bytes of high (most significant first), followed by the lowBytes
+    // least significant bytes of low.
+    public int crc(long high, long low, int lowBytes) {
+        Objects.checkIndex(lowBytes, Long.BYTES + 1);
+        if (lowBytes == 0) return updateWord(0, high);
+        if (lowBytes == Long.BYTES) return updateWord(updateWord(0, high), low);
+
+        // As above, the message is split in a first word starting with zeros and a complete one.
+        var shift = lowBytes * Byte.SIZE;
+        var lowMask = (1L << shift) - 1;
+        return updateWord(updateWord(0, high >>> (Long.SIZE - shift)), (high << shift) | (low & lowMask));
+    }
+
+    // The CRC is computed without appending zero bytes to the message, by combining the top byte
+    // of the CRC with the incoming byte, which gives the same result.
+    private static int updateByte(int[] tables, int crc, int b) {
+        var index = ((crc >>> (CRC_BITS - Byte.SIZE)) ^ b) & 0xFF;
+        return ((crc << Byte.SIZE) & CRC_MASK) ^ tables[index];
+    }
+
+    private int updateWord(int crc, long word) {
+        var w = word ^ ((long) crc << (Long.SIZE - CRC_BITS));
+        return tables[7 * TABLE_SIZE + (int) (w >>> 56)]
+                ^ tables[6 * TABLE_SIZE + ((int) (w >>> 48) & 0xFF)]
+                ^ tables[5 * TABLE_SIZE + ((int) (w >>> 40) & 0xFF)]
+                ^ tables[4 * TABLE_SIZE + ((int) (w >>> 32) & 0xFF)]
+                ^ tables[3 * TABLE_SIZE + ((int) (w >>> 24) & 0xFF)]
+                ^ tables[2 * TABLE_SIZE + ((int) (w >>> 16) & 0xFF)]
+                ^ tables[TABLE_SIZE + ((int) (w >>> 8) & 0xFF)]
+                ^ tables[(int) w & 0xFF];
     }
 }
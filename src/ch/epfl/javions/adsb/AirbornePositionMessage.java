@@ -34,6 +34,9 @@ public record AirbornePositionMessage(long timeStampNs,
     private static final int ALT_FT500_START = ALT_FT100_START + ALT_FT100_SIZE;
     private static final int ALT_FT500_SIZE = 9;
 
+    // Altitude, in meters, corresponding to every possible encoded altitude (NaN if invalid).
+    private static final double[] ALTITUDES = altitudes();
+
     public AirbornePositionMessage {
         Preconditions.checkArgument(timeStampNs >= 0);
         Objects.requireNonNull(icaoAddress);
@@ -43,24 +46,52 @@ public record AirbornePositionMessage(long timeStampNs,
     }
 
     public static AirbornePositionMessage of(RawMessage rawMessage) {
-        var payload = rawMessage.payload();
-        var altitude = altitude(payload);
+        return of(rawMessage.timeStampNs(), rawMessage.icaoAddress(), rawMessage.payload());
+    }
+
+    static AirbornePositionMessage of(long timeStampNs, IcaoAddress icaoAddress, long payload) {
+        var altitude = decodeAltitude(payload);
         return Double.isNaN(altitude)
                 ? null
-                : new AirbornePositionMessage(rawMessage.timeStampNs(),
-                rawMessage.icaoAddress(),
+                : new AirbornePositionMessage(timeStampNs,
+                icaoAddress,
                 altitude,
-                Bits.extractUInt(payload, FORMAT_START, FORMAT_SIZE),
-                normalizeCpr(Bits.extractUInt(payload, LON_CPR_START, LON_CPR_SIZE)),
-                normalizeCpr(Bits.extractUInt(payload, LAT_CPR_START, LAT_CPR_SIZE)));
+                decodeParity(payload),
+                decodeX(payload),
+                decodeY(payload));
+    }
+
+    // The fields are decoded separately by LazyAirbornePositionMessage.
+
+    static int decodeParity(long payload) {
+        return Bits.extractUInt(payload, FORMAT_START, FORMAT_SIZE);
+    }
+
+    static double decodeX(long payload) {
+        return normalizeCpr(Bits.extractUInt(payload, LON_CPR_START, LON_CPR_SIZE));
+    }
+
+    static double decodeY(long payload) {
+        return normalizeCpr(Bits.extractUInt(payload, LAT_CPR_START, LAT_CPR_SIZE));
     }
 
     private static double normalizeCpr(int cpr) {
         return Math.scalb((double) cpr, -CPR_BITS);
     }
 
-    private static double altitude(long payload) {
-        var encAltitude = Bits.extractUInt(payload, ALT_START, ALT_SIZE);
+    // Returns the altitude in meters, or NaN if it is invalid.
+    static double decodeAltitude(long payload) {
+        return ALTITUDES[Bits.extractUInt(payload, ALT_START, ALT_SIZE)];
+    }
+
+    private static double[] altitudes() {
+        var altitudes = new double[1 << ALT_SIZE];
+        for (var encAltitude = 0; encAltitude < altitudes.length; encAltitude += 1)
+            altitudes[encAltitude] = altitude(encAltitude);
+        return altitudes;
+    }
+
+    private static double altitude(int encAltitude) {
         if (Bits.testBit(encAltitude, ALT_Q_BIT_INDEX)) {
             var l = Bits.extractUInt(encAltitude, 0, ALT_Q_BIT_INDEX);
             var h = Bits.extractUInt(encAltitude, ALT_Q_BIT_INDEX + 1, ALT_SIZE - (ALT_Q_BIT_INDEX + 1));
@@ -36,14 +36,17 @@ public record AirborneVelocityMessage(long timeStampNs,
     private static final int SCALE_SUPERSONIC = 2;
 
     public static AirborneVelocityMessage of(RawMessage rawMessage) {
-        var payload = rawMessage.payload();
+        return of(rawMessage.timeStampNs(), rawMessage.icaoAddress(), rawMessage.payload());
+    }
+
+    static AirborneVelocityMessage of(long timeStampNs, IcaoAddress icaoAddress, long payload) {
         var subType = Bits.extractUInt(payload, SUBTYPE_START, SUBTYPE_SIZE);
         var data = Bits.extractUInt(payload, SUBTYPE_SPECIFIC_START, SUBTYPE_SPECIFIC_SIZE);
         return switch (subType) {
-            case 1 -> groundSpeed(rawMessage, data, SCALE_SUBSONIC);
-            case 2 -> groundSpeed(rawMessage, data, SCALE_SUPERSONIC);
-            case 3 -> airSpeed(rawMessage, data, SCALE_SUBSONIC);
-            case 4 -> airSpeed(rawMessage, data, SCALE_SUPERSONIC);
+            case 1 -> groundSpeed(timeStampNs, icaoAddress, data, SCALE_SUBSONIC);
+            case 2 -> groundSpeed(timeStampNs, icaoAddress, data, SCALE_SUPERSONIC);
+            case 3 -> airSpeed(timeStampNs, icaoAddress, data, SCALE_SUBSONIC);
+            case 4 -> airSpeed(timeStampNs, icaoAddress, data, SCALE_SUPERSONIC);
             default -> null;
         };
     }
@@ -55,19 +58,16 @@ public record AirborneVelocityMessage(long timeStampNs,
         Preconditions.checkArgument(trackOrHeading >= 0);
     }
 
-    private static AirborneVelocityMessage of(RawMessage rawMessage, double speed, double trackOrHeading) {
-        var timeStampNs = rawMessage.timeStampNs();
-        var icaoAddress = rawMessage.icaoAddress();
-        return new AirborneVelocityMessage(timeStampNs, icaoAddress, speed, trackOrHeading);
-    }
-
-    private static AirborneVelocityMessage groundSpeed(RawMessage rawMessage, int data, int speedScale) {
+    private static AirborneVelocityMessage groundSpeed(long timeStampNs,
+                                                       IcaoAddress icaoAddress,
+                                                       int data,
+                                                       int speedScale) {
         var vX = speedComponent(data, EW_SPEED_START);
         var vY = speedComponent(data, NS_SPEED_START);
         var speed = convertSpeed(Math.hypot(vX, vY), speedScale);
         var track = Math.atan2(vX, vY);
         if (track < 0) track += Units.Angle.TURN;
-        return Double.isNaN(speed) ? null : of(rawMessage, speed, track);
+        return Double.isNaN(speed) ? null : new AirborneVelocityMessage(timeStampNs, icaoAddress, speed, track);
     }
 
     private static double speedComponent(int data, int startBit) {
@@ -78,7 +78,10 @@ public record AirborneVelocityMessage(long timeStampNs,
         else return magnitude - 1;
     }
 
-    private static AirborneVelocityMessage airSpeed(RawMessage rawMessage, int data, int speedScale) {
+    private static AirborneVelocityMessage airSpeed(long timeStampNs,
+                                                    IcaoAddress icaoAddress,
+                                                    int data,
+                                                    int speedScale) {
         if (!Bits.testBit(data, HEADING_STATUS)) return null;
 
         var speedKnot = Bits.extractUInt(data, AIRSPEED_START, AIRSPEED_SIZE) - 1;
@@ -88,7 +91,7 @@ public record AirborneVelocityMessage(long timeStampNs,
         var heading = Units.convertFrom(Math.scalb(headingBits, -HEADING_SIZE), Units.Angle.TURN);
 
         var speed = convertSpeed(speedKnot, speedScale);
-        return of(rawMessage, speed, heading);
+        return new AirborneVelocityMessage(timeStampNs, icaoAddress, speed, heading);
     }
 
     private static double convertSpeed(double speedKnot, int speedScale) {
@@ -15,6 +15,17 @@ public record AircraftIdentificationMessage(long timeStampNs,
     private static final String CALL_SIGN_ALPHABET =
             "?ABCDEFGHIJKLMNOPQRSTUVWXYZ????? ???????????????0123456789??????";
 
+    // The two characters corresponding to every possible pair of encoded characters.
+    private static final int CALL_SIGN_PAIR_SIZE = 2 * CALL_SIGN_CHAR_SIZE;
+    private static final char[] CALL_SIGN_PAIRS = callSignPairs();
+
+    // Direct-mapped cache of the call signs (or null for invalid ones) decoded from each encoded
+    // call sign, so that the messages of an aircraft share the same instance. Races only cause
+    // redundant instances, since the entries are immutable.
+    private record CachedCallSign(long encCallSign, CallSign callSign) {}
+    private static final int CALL_SIGN_CACHE_SIZE = 1 << 10;
+    private static final CachedCallSign[] CALL_SIGN_CACHE = new CachedCallSign[CALL_SIGN_CACHE_SIZE];
+
     private static final int CATEGORY_START = CALL_SIGN_LENGTH * CALL_SIGN_CHAR_SIZE;
     private static final int CATEGORY_SIZE = 3;
 
@@ -25,31 +36,62 @@ public record AircraftIdentificationMessage(long timeStampNs,
     }
 
     public static AircraftIdentificationMessage of(RawMessage rawMessage) {
-        var payload = rawMessage.payload();
-        var callSign = callSign(payload);
+        return of(rawMessage.timeStampNs(), rawMessage.icaoAddress(), rawMessage.payload());
+    }
+
+    static AircraftIdentificationMessage of(long timeStampNs, IcaoAddress icaoAddress, long payload) {
+        var callSign = decodeCallSign(payload);
         return callSign == null
                 ? null
                 : new AircraftIdentificationMessage(
-                rawMessage.timeStampNs(),
-                rawMessage.icaoAddress(),
-                category(payload),
+                timeStampNs,
+                icaoAddress,
+                decodeCategory(payload),
                 callSign);
     }
 
-    private static int category(long payload) {
+    // The fields are decoded separately by LazyAircraftIdentificationMessage.
+
+    static int decodeCategory(long payload) {
         var category = Bits.extractUInt(payload, CATEGORY_START, CATEGORY_SIZE);
         return (0xE - RawMessage.typeCode(payload)) << 4 | category;
     }
 
-    private static CallSign callSign(long payload) {
-        var callSignB = new StringBuilder(CALL_SIGN_LENGTH);
-        for (var i = 0; i < CALL_SIGN_LENGTH * CALL_SIGN_CHAR_SIZE; i += CALL_SIGN_CHAR_SIZE) {
-            var n = Bits.extractUInt(payload, i, CALL_SIGN_CHAR_SIZE);
-            var c = CALL_SIGN_ALPHABET.charAt(n);
-            if (callSignB.isEmpty() && c == ' ') continue; // ignore trailing spaces
-            callSignB.append(c);
+    // Returns the call sign, or null if it is invalid.
+    static CallSign decodeCallSign(long payload) {
+        var encCallSign = payload & ((1L << (CALL_SIGN_LENGTH * CALL_SIGN_CHAR_SIZE)) - 1);
+        var index = (int) (encCallSign ^ (encCallSign >>> 20) ^ (encCallSign >>> 40)) & (CALL_SIGN_CACHE_SIZE - 1);
+        var cached = CALL_SIGN_CACHE[index];
+        if (cached == null || cached.encCallSign() != encCallSign) {
+            cached = new CachedCallSign(encCallSign, callSign(encCallSign));
+            CALL_SIGN_CACHE[index] = cached;
+        }
+        return cached.callSign();
+    }
+
+    private static CallSign callSign(long encCallSign) {
+        var chars = new char[CALL_SIGN_LENGTH];
+        for (var i = 0; i < CALL_SIGN_LENGTH; i += 2) {
+            var pairStart = (CALL_SIGN_LENGTH - 2 - i) * CALL_SIGN_CHAR_SIZE;
+            var pair = (int) (encCallSign >>> pairStart) & ((1 << CALL_SIGN_PAIR_SIZE) - 1);
+            chars[i] = CALL_SIGN_PAIRS[2 * pair];
+            chars[i + 1] = CALL_SIGN_PAIRS[2 * pair + 1];
+        }
+
+        var length = CALL_SIGN_LENGTH;
+        while (length > 0 && chars[length - 1] == ' ') length -= 1; // ignore trailing spaces
+        for (var i = 0; i < length; i += 1) {
+            if (chars[i] == '?') return null;
+        }
+        return new CallSign(new String(chars, 0, length));
+    }
+
+    private static char[] callSignPairs() {
+        var pairs = new char[2 << CALL_SIGN_PAIR_SIZE];
+        for (var pair = 0; pair < 1 << CALL_SIGN_PAIR_SIZE; pair += 1) {
+            pairs[2 * pair] = CALL_SIGN_ALPHABET.charAt(pair >>> CALL_SIGN_CHAR_SIZE);
+            pairs[2 * pair + 1] = CALL_SIGN_ALPHABET.charAt(pair & ((1 << CALL_SIGN_CHAR_SIZE) - 1));
         }
-        var callSign = callSignB.reverse().toString();
-        return callSign.contains("?") ? null : new CallSign(callSign);
+        return pairs;
     }
 }
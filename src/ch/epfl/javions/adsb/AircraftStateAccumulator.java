@@ -41,6 +41,13 @@ public final class AircraftStateAccumulator<T extends AircraftStateSetter> {
                 stateSetter.setTrackOrHeading(m.trackOrHeading());
             }
 
+            case LazyMessage m -> {
+                // All the fields are used, so decode them eagerly.
+                var eagerMessage = m.toMessage();
+                if (eagerMessage != null) update(eagerMessage);
+                return;
+            }
+
             default -> throw new Error();
         }
         stateSetter.setLastMessageTimeStampNs(message.timeStampNs());
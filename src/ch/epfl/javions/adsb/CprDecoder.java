@@ -4,8 +4,18 @@ import ch.epfl.javions.GeoPos;
 import ch.epfl.javions.Preconditions;
 import ch.epfl.javions.Units;
 
+import java.util.Arrays;
+
 import static java.lang.Math.*;
 
+/**
+ * Decoder of the positions of the aircraft, from a pair of CPR-encoded even and odd positions.
+ * <p>
+ * The number of longitude zones at a latitude (NL) is a step function of the latitude. Instead of
+ * computing it with trigonometric functions for each position, the latitudes at which it changes
+ * are computed once, by bisection of the formula, and looked up with a binary search. Since the
+ * formula is monotonic on each quarter turn, this gives exactly the same result for all latitudes.
+ */
 public final class CprDecoder {
     private static final int LAT_ZONES_0 = 60;
     private static final int LAT_ZONES_1 = LAT_ZONES_0 - 1;
@@ -15,6 +25,31 @@ public final class CprDecoder {
 
     private static final double LON_ZONES_NUMERATOR = 1 - cos(Units.convertFrom(D_LAT_0_TURN, Units.Angle.TURN));
 
+    // The number of longitude zones is LON_ZONES[i] for latitudes, in turns between -1 and 1 (the
+    // latitudes of inconsistent positions being outside of -1/4 and 1/4), from
+    // LON_ZONES_START_TURN[i] (inclusive) to LON_ZONES_START_TURN[i + 1] (exclusive).
+    private static final double[] LON_ZONES_START_TURN;
+    private static final int[] LON_ZONES;
+
+    static {
+        var startsTurn = new double[8 * LAT_ZONES_0];
+        var lonZones = new int[startsTurn.length];
+        var count = 0;
+        for (var quarter = -4; quarter < 4; quarter += 1) {
+            var startTurn = quarter / 4d;
+            var endTurn = Math.nextDown((quarter + 1) / 4d);
+            while (true) {
+                startsTurn[count] = startTurn;
+                lonZones[count] = computeLonZones(startTurn);
+                count += 1;
+                if (computeLonZones(endTurn) == lonZones[count - 1]) break;
+                startTurn = nextLonZonesStart(startTurn, endTurn);
+            }
+        }
+        LON_ZONES_START_TURN = Arrays.copyOf(startsTurn, count);
+        LON_ZONES = Arrays.copyOf(lonZones, count);
+    }
+
     private CprDecoder() {}
 
     public static GeoPos decodePosition(double x0, double y0, double x1, double y1, int mostRecent) {
@@ -38,7 +73,28 @@ public final class CprDecoder {
         }
     }
 
+    // Returns the number of longitude zones at the given latitude, in turns between -1 and 1.
     private static int lonZones(double latTurn) {
+        var i = Arrays.binarySearch(LON_ZONES_START_TURN, latTurn);
+        return LON_ZONES[i >= 0 ? i : -i - 2];
+    }
+
+    // Returns the smallest latitude between the given ones, the number of longitude zones at the
+    // second being different from the one at the first, at which it differs from the one at the
+    // first.
+    private static double nextLonZonesStart(double fromTurn, double toTurn) {
+        var lonZones = computeLonZones(fromTurn);
+        var low = fromTurn;
+        var high = toTurn;
+        while (Math.nextUp(low) < high) {
+            var middle = low + (high - low) / 2;
+            if (computeLonZones(middle) == lonZones) low = middle;
+            else high = middle;
+        }
+        return high;
+    }
+
+    private static int computeLonZones(double latTurn) {
         var cosLat = cos(Units.convertFrom(latTurn, Units.Angle.TURN));
         var nl = floor(Units.Angle.TURN / acos(1 - LON_ZONES_NUMERATOR / (cosLat * cosLat)));
         return Double.isNaN(nl) ? 1 : (int) nl;
@@ -0,0 +1,120 @@
+package ch.epfl.javions.adsb;
+
+import ch.epfl.javions.Crc24;
+import ch.epfl.javions.Preconditions;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Correction of the messages having one or two wrong bits, using their CRC.
+ * <p>
+ * Since the CRC is linear, the CRC of a message having wrong bits (its syndrome) is the XOR of
+ * the CRCs of messages having only one of these bits set, which doesn't depend on the message.
+ * The syndromes of all the correctable errors are therefore computed once and stored in a table
+ * giving the bits to flip to correct a message. The bits of the downlink format are never
+ * corrected, since they were used to determine the message length.
+ */
+public final class ErrorCorrector {
+    public static final int MAX_ERRORS = 2;
+
+    static final int MESSAGE_BITS = RawMessage.LENGTH * Byte.SIZE;
+    static final int FIRST_CORRECTABLE_BIT = 5;
+
+    private static final Crc24 CRC_24 = new Crc24(Crc24.GENERATOR);
+    // Syndrome of an error on each bit of a long message.
+    static final int[] BIT_SYNDROMES = bitSyndromes();
+
+    // Open addressing table of syndromes (0 marks an empty slot) and, for each of them, the
+    // positions of the wrong bits plus one, in the two low bytes (0 for no bit).
+    // A syndrome shared by several errors (never the case for the ADS-B generator) is ambiguous
+    // and has no bit position.
+    private static final int AMBIGUOUS = -1;
+    private final int[] syndromes;
+    private final int[] errors;
+    private final int mask;
+    private final int shift;
+
+    private final AtomicLong correctedCount;
+    private final AtomicLong rejectedCount;
+
+    public ErrorCorrector(int maxErrors) {
+        Preconditions.checkArgument(1 <= maxErrors && maxErrors <= MAX_ERRORS);
+
+        var correctableBits = MESSAGE_BITS - FIRST_CORRECTABLE_BIT;
+        var errorsCount = maxErrors == 1
+                ? correctableBits
+                : correctableBits + correctableBits * (correctableBits - 1) / 2;
+        // Keep the load factor below 1/2.
+        var capacity = Integer.highestOneBit(errorsCount) << 2;
+        this.syndromes = new int[capacity];
+        this.errors = new int[capacity];
+        this.mask = capacity - 1;
+        this.shift = Integer.SIZE - Integer.numberOfTrailingZeros(capacity);
+
+        for (var bit1 = FIRST_CORRECTABLE_BIT; bit1 < MESSAGE_BITS; bit1 += 1) {
+            addError(BIT_SYNDROMES[bit1], bit1 + 1);
+            if (maxErrors == 1) continue;
+            for (var bit2 = bit1 + 1; bit2 < MESSAGE_BITS; bit2 += 1)
+                addError(BIT_SYNDROMES[bit1] ^ BIT_SYNDROMES[bit2], (bit1 + 1) | (bit2 + 1) << Byte.SIZE);
+        }
+
+        this.correctedCount = new AtomicLong();
+        this.rejectedCount = new AtomicLong();
+    }
+
+    private static int[] bitSyndromes() {
+        var bitSyndromes = new int[MESSAGE_BITS];
+        for (var bit = 0; bit < MESSAGE_BITS; bit += 1) {
+            var bytes = new byte[RawMessage.LENGTH];
+            flipBit(bytes, bit);
+            bitSyndromes[bit] = CRC_24.crc(bytes);
+        }
+        return bitSyndromes;
+    }
+
+    private void addError(int syndrome, int error) {
+        var i = slot(syndrome);
+        while (syndromes[i] != 0 && syndromes[i] != syndrome) i = (i + 1) & mask;
+        errors[i] = syndromes[i] == 0 ? error : AMBIGUOUS;
+        syndromes[i] = syndrome;
+    }
+
+    private int slot(int syndrome) {
+        return (syndrome * 0x9E3779B9) >>> shift;
+    }
+
+    // Returns true if the given message is valid, possibly after having corrected it in place.
+    public boolean correct(byte[] bytes) {
+        Preconditions.checkArgument(bytes.length == RawMessage.LENGTH);
+
+        var syndrome = CRC_24.crc(bytes);
+        if (syndrome == 0) return true;
+
+        var i = slot(syndrome);
+        while (syndromes[i] != 0 && syndromes[i] != syndrome) i = (i + 1) & mask;
+        if (syndromes[i] == 0 || errors[i] == AMBIGUOUS) {
+            rejectedCount.incrementAndGet();
+            return false;
+        }
+
+        var error = errors[i];
+        flipBit(bytes, (error & 0xFF) - 1);
+        if ((error >>> Byte.SIZE) != 0) flipBit(bytes, (error >>> Byte.SIZE) - 1);
+        correctedCount.incrementAndGet();
+        return true;
+    }
+
+    static void flipBit(byte[] bytes, int bit) {
+        bytes[bit / Byte.SIZE] ^= (byte) (1 << (Byte.SIZE - 1 - bit % Byte.SIZE));
+    }
+
+    // Number of invalid messages which were corrected.
+    public long correctedCount() {
+        return correctedCount.get();
+    }
+
+    // Number of invalid messages which couldn't be corrected.
+    public long rejectedCount() {
+        return rejectedCount.get();
+    }
+}
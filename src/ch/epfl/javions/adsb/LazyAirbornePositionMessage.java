@@ -0,0 +1,55 @@
+package ch.epfl.javions.adsb;
+
+import java.util.Objects;
+
+// The lazy variant of AirbornePositionMessage, whose altitude is only decoded when first accessed.
+// The other fields are simply extracted from the payload.
+public final class LazyAirbornePositionMessage implements LazyMessage {
+    private final RawMessage rawMessage;
+    private final long payload;
+    private boolean isAltitudeDecoded = false;
+    private double altitude;
+
+    public LazyAirbornePositionMessage(RawMessage rawMessage) {
+        this.rawMessage = Objects.requireNonNull(rawMessage);
+        this.payload = rawMessage.payload();
+    }
+
+    @Override
+    public RawMessage rawMessage() {
+        return rawMessage;
+    }
+
+    // Returns the altitude, or NaN if it is invalid.
+    public double altitude() {
+        if (!isAltitudeDecoded) {
+            altitude = AirbornePositionMessage.decodeAltitude(payload);
+            isAltitudeDecoded = true;
+        }
+        return altitude;
+    }
+
+    public int parity() {
+        return AirbornePositionMessage.decodeParity(payload);
+    }
+
+    public double x() {
+        return AirbornePositionMessage.decodeX(payload);
+    }
+
+    public double y() {
+        return AirbornePositionMessage.decodeY(payload);
+    }
+
+    @Override
+    public boolean isValid() {
+        return !Double.isNaN(altitude());
+    }
+
+    @Override
+    public AirbornePositionMessage toMessage() {
+        return isValid()
+                ? new AirbornePositionMessage(timeStampNs(), icaoAddress(), altitude(), parity(), x(), y())
+                : null;
+    }
+}
@@ -0,0 +1,44 @@
+package ch.epfl.javions.adsb;
+
+import java.util.Objects;
+
+// The lazy variant of AirborneVelocityMessage. As the speed and the track or heading are computed
+// together, both are decoded when the first one is accessed.
+public final class LazyAirborneVelocityMessage implements LazyMessage {
+    private final RawMessage rawMessage;
+    private boolean isDecoded = false;
+    private AirborneVelocityMessage message;
+
+    public LazyAirborneVelocityMessage(RawMessage rawMessage) {
+        this.rawMessage = Objects.requireNonNull(rawMessage);
+    }
+
+    @Override
+    public RawMessage rawMessage() {
+        return rawMessage;
+    }
+
+    // Returns the speed, or NaN if the message is invalid.
+    public double speed() {
+        return isValid() ? message.speed() : Double.NaN;
+    }
+
+    // Returns the track or heading, or NaN if the message is invalid.
+    public double trackOrHeading() {
+        return isValid() ? message.trackOrHeading() : Double.NaN;
+    }
+
+    @Override
+    public boolean isValid() {
+        return toMessage() != null;
+    }
+
+    @Override
+    public AirborneVelocityMessage toMessage() {
+        if (!isDecoded) {
+            message = AirborneVelocityMessage.of(rawMessage);
+            isDecoded = true;
+        }
+        return message;
+    }
+}
@@ -0,0 +1,47 @@
+package ch.epfl.javions.adsb;
+
+import java.util.Objects;
+
+// The lazy variant of AircraftIdentificationMessage, whose call sign is only decoded when first
+// accessed. The category is simply extracted from the payload.
+public final class LazyAircraftIdentificationMessage implements LazyMessage {
+    private final RawMessage rawMessage;
+    private final long payload;
+    private boolean isCallSignDecoded = false;
+    private CallSign callSign;
+
+    public LazyAircraftIdentificationMessage(RawMessage rawMessage) {
+        this.rawMessage = Objects.requireNonNull(rawMessage);
+        this.payload = rawMessage.payload();
+    }
+
+    @Override
+    public RawMessage rawMessage() {
+        return rawMessage;
+    }
+
+    public int category() {
+        return AircraftIdentificationMessage.decodeCategory(payload);
+    }
+
+    // Returns the call sign, or null if it is invalid.
+    public CallSign callSign() {
+        if (!isCallSignDecoded) {
+            callSign = AircraftIdentificationMessage.decodeCallSign(payload);
+            isCallSignDecoded = true;
+        }
+        return callSign;
+    }
+
+    @Override
+    public boolean isValid() {
+        return callSign() != null;
+    }
+
+    @Override
+    public AircraftIdentificationMessage toMessage() {
+        return isValid()
+                ? new AircraftIdentificationMessage(timeStampNs(), icaoAddress(), category(), callSign())
+                : null;
+    }
+}
@@ -0,0 +1,30 @@
+package ch.epfl.javions.adsb;
+
+import ch.epfl.javions.aircraft.IcaoAddress;
+
+/**
+ * A message whose fields are decoded from the payload of its raw message only when they are first
+ * accessed, and then kept. Since only its type code is checked when it is created, it can turn out
+ * to be invalid, in which case the corresponding (eager) message is null.
+ * <p>
+ * Lazy messages are meant for consumers discarding most messages, or reading only some of their
+ * fields. They are mutable, and thus not meant to be shared between threads.
+ */
+public interface LazyMessage extends Message {
+    RawMessage rawMessage();
+
+    boolean isValid();
+
+    // Returns the corresponding message, decoded eagerly, or null if this one is invalid.
+    Message toMessage();
+
+    @Override
+    default long timeStampNs() {
+        return rawMessage().timeStampNs();
+    }
+
+    @Override
+    default IcaoAddress icaoAddress() {
+        return rawMessage().icaoAddress();
+    }
+}
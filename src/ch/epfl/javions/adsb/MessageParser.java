@@ -3,7 +3,9 @@ package ch.epfl.javions.adsb;
 public final class MessageParser {
     private MessageParser() {}
 
+    // Only extended squitter messages are parsed.
     public static Message parse(RawMessage rawMessage) {
+        if (!rawMessage.isExtendedSquitter()) return null;
         return switch (rawMessage.typeCode()) {
             case 1, 2, 3, 4 ->
                     AircraftIdentificationMessage.of(rawMessage);
@@ -15,4 +17,36 @@ public final class MessageParser {
                     null;
         };
     }
+
+    // Only checks the type code of the message, its fields being decoded when first accessed.
+    public static LazyMessage parseLazily(RawMessage rawMessage) {
+        if (!rawMessage.isExtendedSquitter()) return null;
+        return switch (rawMessage.typeCode()) {
+            case 1, 2, 3, 4 ->
+                    new LazyAircraftIdentificationMessage(rawMessage);
+            case 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 20, 21, 22 ->
+                    new LazyAirbornePositionMessage(rawMessage);
+            case 19 ->
+                    new LazyAirborneVelocityMessage(rawMessage);
+            default ->
+                    null;
+        };
+    }
+
+    // Parses the message directly from the payload of the mutable message, which is never
+    // materialized as a RawMessage.
+    public static Message parse(MutableRawMessage rawMessage) {
+        if (!rawMessage.isExtendedSquitter()) return null;
+        var payload = rawMessage.payload();
+        return switch (RawMessage.typeCode(payload)) {
+            case 1, 2, 3, 4 ->
+                    AircraftIdentificationMessage.of(rawMessage.timeStampNs(), rawMessage.icaoAddress(), payload);
+            case 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 20, 21, 22 ->
+                    AirbornePositionMessage.of(rawMessage.timeStampNs(), rawMessage.icaoAddress(), payload);
+            case 19 ->
+                    AirborneVelocityMessage.of(rawMessage.timeStampNs(), rawMessage.icaoAddress(), payload);
+            default ->
+                    null;
+        };
+    }
 }
@@ -0,0 +1,129 @@
+package ch.epfl.javions.adsb;
+
+import ch.epfl.javions.Bits;
+import ch.epfl.javions.ByteString;
+import ch.epfl.javions.Crc24;
+import ch.epfl.javions.Preconditions;
+import ch.epfl.javions.aircraft.IcaoAddress;
+
+import java.util.Objects;
+
+/**
+ * A mutable raw message, meant to be reused for successive messages to avoid allocations.
+ * Its bytes are stored in two longs, and {@link #toRawMessage()} materializes it only when needed.
+ * <p>
+ * It also carries the lowest confidence of the demodulator in its bits (see
+ * {@code AdsbDemodulator.bitConfidence}), a measure of the quality of its signal, which is NaN
+ * when unknown and not kept by {@link #toRawMessage()}.
+ */
+public final class MutableRawMessage {
+    // Bytes 0 to 7 are stored in high (byte 0 in the most significant byte), 8 to 13 in low,
+    // the bytes after the end of a short message being 0.
+    private static final int HIGH_BYTES = Long.BYTES;
+    private static final int LOW_BYTES = RawMessage.LENGTH - HIGH_BYTES;
+    private static final Crc24 CRC_24 = new Crc24(Crc24.GENERATOR);
+
+    private static final int DF_START = Long.SIZE - 5;
+    private static final int DF_SIZE = 5;
+    private static final int ICAO_ADDRESS_START = Long.SIZE - 4 * Byte.SIZE;
+    private static final int ICAO_ADDRESS_SIZE = 3 * Byte.SIZE;
+    private static final int PAYLOAD_LOW_BITS = 3 * Byte.SIZE;
+    private static final int PARITY_BYTES = 3;
+    private static final int PARITY_SIZE = PARITY_BYTES * Byte.SIZE;
+    private static final int SHORT_DATA_BYTES = RawMessage.SHORT_LENGTH - PARITY_BYTES;
+
+    private long timeStampNs;
+    private int size;
+    private long high;
+    private long low;
+    private double minBitConfidence = Double.NaN;
+
+    public long timeStampNs() {
+        return timeStampNs;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double minBitConfidence() {
+        return minBitConfidence;
+    }
+
+    public void set(long timeStampNs, byte[] bytes) {
+        set(timeStampNs, bytes, Double.NaN);
+    }
+
+    public void set(long timeStampNs, byte[] bytes, double minBitConfidence) {
+        Preconditions.checkArgument(timeStampNs >= 0);
+        Preconditions.checkArgument(bytes.length > 0 && bytes.length == RawMessage.size(bytes[0]));
+
+        var high = 0L;
+        for (var i = 0; i < HIGH_BYTES; i += 1)
+            high = (high << Byte.SIZE) | (i < bytes.length ? Byte.toUnsignedInt(bytes[i]) : 0);
+        var low = 0L;
+        for (var i = HIGH_BYTES; i < bytes.length; i += 1) low = (low << Byte.SIZE) | Byte.toUnsignedInt(bytes[i]);
+
+        this.timeStampNs = timeStampNs;
+        this.size = bytes.length;
+        this.high = high;
+        this.low = low;
+        this.minBitConfidence = minBitConfidence;
+    }
+
+    public void set(MutableRawMessage that) {
+        this.timeStampNs = that.timeStampNs;
+        this.size = that.size;
+        this.high = that.high;
+        this.low = that.low;
+        this.minBitConfidence = that.minBitConfidence;
+    }
+
+    public int byteAt(int index) {
+        Objects.checkIndex(index, size);
+        return index < HIGH_BYTES
+                ? (int) (high >>> ((HIGH_BYTES - 1 - index) * Byte.SIZE)) & 0xFF
+                : (int) (low >>> ((RawMessage.LENGTH - 1 - index) * Byte.SIZE)) & 0xFF;
+    }
+
+    public int downLinkFormat() {
+        return Bits.extractUInt(high, DF_START, DF_SIZE);
+    }
+
+    // The address of messages with an address/parity parity is the residual of their CRC, i.e.
+    // the CRC of their data XORed with their parity. Zero bytes at the start of the data don't
+    // change its CRC.
+    public int icaoAddressInt() {
+        if (!RawMessage.hasAddressParity(downLinkFormat()))
+            return Bits.extractUInt(high, ICAO_ADDRESS_START, ICAO_ADDRESS_SIZE);
+        return size == RawMessage.LENGTH
+                ? CRC_24.crc(high, low >>> PARITY_SIZE, LOW_BYTES - PARITY_BYTES) ^ Bits.extractUInt(low, 0, PARITY_SIZE)
+                : CRC_24.crc(0, high >>> (Long.SIZE - SHORT_DATA_BYTES * Byte.SIZE), SHORT_DATA_BYTES)
+                ^ Bits.extractUInt(high, Byte.SIZE, PARITY_SIZE);
+    }
+
+    public IcaoAddress icaoAddress() {
+        return IcaoAddress.of(icaoAddressInt());
+    }
+
+    public boolean isExtendedSquitter() {
+        return size == RawMessage.LENGTH && RawMessage.isExtendedSquitter((byte) byteAt(0));
+    }
+
+    // Only valid for extended squitter messages.
+    public long payload() {
+        var payloadHigh = high & 0xFFFF_FFFFL;
+        var payloadLow = low >>> (LOW_BYTES * Byte.SIZE - PAYLOAD_LOW_BITS);
+        return (payloadHigh << PAYLOAD_LOW_BITS) | payloadLow;
+    }
+
+    public int typeCode() {
+        return RawMessage.typeCode(payload());
+    }
+
+    public RawMessage toRawMessage() {
+        var bytes = new byte[size];
+        for (var i = 0; i < size; i += 1) bytes[i] = (byte) byteAt(i);
+        return new RawMessage(timeStampNs, new ByteString(bytes));
+    }
+}
@@ -6,10 +6,10 @@ import ch.epfl.javions.Crc24;
 import ch.epfl.javions.Preconditions;
 import ch.epfl.javions.aircraft.IcaoAddress;
 
-import java.util.HexFormat;
-
 public record RawMessage(long timeStampNs, ByteString bytes) {
+    // Length of long (112-bit) and short (56-bit) messages.
     public static final int LENGTH = 14;
+    public static final int SHORT_LENGTH = 7;
 
     // Bytes of the message.
     private static final int DF_CA_BYTE = 0;
@@ -18,6 +18,7 @@ public record RawMessage(long timeStampNs, ByteString bytes) {
     private static final int ICAO_ADDRESS_END = ICAO_ADDRESS_START + ICAO_ADDRESS_LENGTH;
     private static final int PAYLOAD_START = ICAO_ADDRESS_END;
     private static final int PAYLOAD_END = PAYLOAD_START + 7;
+    private static final int PARITY_LENGTH = 3;
 
     // Bits of the first byte (DF and CA).
     private static final int CA_START = 0;
@@ -25,31 +26,130 @@ public record RawMessage(long timeStampNs, ByteString bytes) {
     private static final int DF_START = CA_START + CA_SIZE;
     private static final int DF_SIZE = 5;
 
-    // Known DF values.
+    // Known DF values. Formats 24 and above are all Comm-D (DF24) messages.
+    private static final int DF_SHORT_AIR_AIR_SURVEILLANCE = 0;
+    private static final int DF_SURVEILLANCE_ALTITUDE_REPLY = 4;
+    private static final int DF_SURVEILLANCE_IDENTITY_REPLY = 5;
+    private static final int DF_ALL_CALL_REPLY = 11;
+    private static final int DF_LONG_AIR_AIR_SURVEILLANCE = 16;
     private static final int DF_EXTENDED_SQUITTER = 17;
+    private static final int DF_EXTENDED_SQUITTER_NON_TRANSPONDER = 18;
+    private static final int DF_MILITARY_EXTENDED_SQUITTER = 19;
+    private static final int DF_COMM_B_ALTITUDE_REPLY = 20;
+    private static final int DF_COMM_B_IDENTITY_REPLY = 21;
+    private static final int DF_COMM_D = 24;
+
+    // Bits of the CRC residual of an all-call reply that may be non-zero, as its parity is
+    // overlaid with the interrogator code.
+    private static final int INTERROGATOR_CODE_MASK = 0x7F;
 
     // Bits of the payload (ME).
     private static final int TC_START = 51;
     private static final int TC_SIZE = 5;
 
-    private static final HexFormat HEX_FORMAT = HexFormat.of().withUpperCase();
     private static final Crc24 CRC_24 = new Crc24(Crc24.GENERATOR);
 
-    private static int downLinkFormat(int byte0) {
+    public static int downLinkFormat(byte byte0) {
         return Bits.extractUInt(byte0, DF_START, DF_SIZE);
     }
 
+    // Returns the length of the message starting with the given byte, or 0 if its format is unknown.
     public static int size(byte byte0) {
-        return downLinkFormat(byte0) == DF_EXTENDED_SQUITTER ? LENGTH : 0;
+        return switch (downLinkFormat(byte0)) {
+            case DF_SHORT_AIR_AIR_SURVEILLANCE, DF_SURVEILLANCE_ALTITUDE_REPLY,
+                    DF_SURVEILLANCE_IDENTITY_REPLY, DF_ALL_CALL_REPLY ->
+                    SHORT_LENGTH;
+            case DF_LONG_AIR_AIR_SURVEILLANCE, DF_EXTENDED_SQUITTER, DF_EXTENDED_SQUITTER_NON_TRANSPONDER,
+                    DF_MILITARY_EXTENDED_SQUITTER, DF_COMM_B_ALTITUDE_REPLY, DF_COMM_B_IDENTITY_REPLY ->
+                    LENGTH;
+            default ->
+                    downLinkFormat(byte0) >= DF_COMM_D ? LENGTH : 0;
+        };
+    }
+
+    // Returns true if the parity of messages of the given format is overlaid with the ICAO
+    // address of the aircraft, which is then not part of the message (address/parity, AP).
+    // The parity of the other formats is only overlaid with an interrogator code (parity/interrogator, PI).
+    public static boolean hasAddressParity(int downLinkFormat) {
+        return switch (downLinkFormat) {
+            case DF_ALL_CALL_REPLY, DF_EXTENDED_SQUITTER, DF_EXTENDED_SQUITTER_NON_TRANSPONDER,
+                    DF_MILITARY_EXTENDED_SQUITTER ->
+                    false;
+            default ->
+                    true;
+        };
+    }
+
+    // Returns true if the message starting with the given byte is an ADS-B extended squitter,
+    // i.e. sent by a transponder (DF17) or by another device with an ICAO address (DF18 with CF 0).
+    public static boolean isExtendedSquitter(byte byte0) {
+        return switch (downLinkFormat(byte0)) {
+            case DF_EXTENDED_SQUITTER -> true;
+            case DF_EXTENDED_SQUITTER_NON_TRANSPONDER -> Bits.extractUInt(byte0, CA_START, CA_SIZE) == 0;
+            default -> false;
+        };
+    }
+
+    // Returns false if the 3 bits following the format of the message starting with the given
+    // byte have a value which is reserved, and thus never sent: capabilities 1 to 3 of all-call
+    // replies and extended squitters, control field 7 of non-transponder extended squitters,
+    // and flight statuses 6 and 7 of surveillance and Comm-B replies.
+    public static boolean isPlausible(byte byte0) {
+        var field = Bits.extractUInt(byte0, CA_START, CA_SIZE);
+        return switch (downLinkFormat(byte0)) {
+            case DF_ALL_CALL_REPLY, DF_EXTENDED_SQUITTER -> field == 0 || field >= 4;
+            case DF_EXTENDED_SQUITTER_NON_TRANSPONDER -> field != 7;
+            case DF_SURVEILLANCE_ALTITUDE_REPLY, DF_SURVEILLANCE_IDENTITY_REPLY,
+                    DF_COMM_B_ALTITUDE_REPLY, DF_COMM_B_IDENTITY_REPLY -> field <= 5;
+            default -> true;
+        };
     }
 
     public RawMessage {
         Preconditions.checkArgument(timeStampNs >= 0);
-        Preconditions.checkArgument(bytes.size() == LENGTH);
+        Preconditions.checkArgument(bytes.size() > 0 && bytes.size() == size((byte) bytes.byteAt(DF_CA_BYTE)));
     }
 
     public static RawMessage of(long timeStampNs, byte[] bytes) {
-        return CRC_24.crc(bytes) == 0 ? new RawMessage(timeStampNs, new ByteString(bytes)) : null;
+        return isValid(bytes) ? new RawMessage(timeStampNs, new ByteString(bytes)) : null;
+    }
+
+    // Returns the CRC of the data of the message XORed with its parity (its last 3 bytes), which
+    // is 0 for a valid message having a parity/interrogator parity with a zero interrogator code,
+    // and its ICAO address for a valid address/parity one.
+    public static int crcResidual(byte[] bytes) {
+        var dataLength = bytes.length - PARITY_LENGTH;
+        var parity = 0;
+        for (var i = dataLength; i < bytes.length; i += 1) parity = (parity << Byte.SIZE) | Byte.toUnsignedInt(bytes[i]);
+        return CRC_24.crc(bytes, 0, dataLength) ^ parity;
+    }
+
+    // Returns true if the bytes are those of a valid message whose format has a parity/interrogator
+    // parity, with a zero interrogator code. Those of the other formats, and all-call replies with
+    // a non-zero interrogator code, can only be checked by knowing the address of their sender.
+    public static boolean isValid(byte[] bytes) {
+        if (bytes.length == 0 || bytes.length != size(bytes[DF_CA_BYTE])) return false;
+        return !hasAddressParity(downLinkFormat(bytes[DF_CA_BYTE])) && crcResidual(bytes) == 0;
+    }
+
+    // Returns true if the bytes are those of an all-call reply whose parity is overlaid with a
+    // non-zero interrogator code. As 2^-17 of random messages are such, one must only be accepted
+    // if its address was received recently.
+    public static boolean hasInterrogatorCode(byte[] bytes) {
+        if (bytes.length != SHORT_LENGTH || downLinkFormat(bytes[DF_CA_BYTE]) != DF_ALL_CALL_REPLY) return false;
+
+        var residual = crcResidual(bytes);
+        return residual != 0 && (residual & ~INTERROGATOR_CODE_MASK) == 0;
+    }
+
+    // Returns true if the given valid message has the ICAO address of its sender in its address
+    // field, and can thus be used to record the addresses received recently: extended squitters
+    // and all-call replies with a zero interrogator code. The address field of DF18 messages with a
+    // non-zero CF, or of military DF19 ones, is not always an ICAO address.
+    public static boolean identifiesSender(byte[] bytes) {
+        var byte0 = bytes[DF_CA_BYTE];
+        return isExtendedSquitter(byte0)
+                || downLinkFormat(byte0) == DF_ALL_CALL_REPLY && crcResidual(bytes) == 0;
     }
 
     public static int typeCode(long payload) {
@@ -57,14 +157,25 @@ public record RawMessage(long timeStampNs, ByteString bytes) {
     }
 
     public int downLinkFormat() {
-        return downLinkFormat(bytes().byteAt(DF_CA_BYTE));
+        return downLinkFormat((byte) bytes.byteAt(DF_CA_BYTE));
+    }
+
+    // The address of messages with an address/parity parity is the residual of their CRC.
+    public int icaoAddressInt() {
+        return hasAddressParity(downLinkFormat())
+                ? crcResidual(bytes.toByteArray())
+                : (int) bytes.bytesInRange(ICAO_ADDRESS_START, ICAO_ADDRESS_END);
     }
 
     public IcaoAddress icaoAddress() {
-        var address = bytes.bytesInRange(ICAO_ADDRESS_START, ICAO_ADDRESS_END);
-        return new IcaoAddress(HEX_FORMAT.toHexDigits(address, 2 * ICAO_ADDRESS_LENGTH));
+        return IcaoAddress.of(icaoAddressInt());
+    }
+
+    public boolean isExtendedSquitter() {
+        return isExtendedSquitter((byte) bytes.byteAt(DF_CA_BYTE));
     }
 
+    // Only valid for extended squitter messages.
     public long payload() {
         return bytes.bytesInRange(PAYLOAD_START, PAYLOAD_END);
     }
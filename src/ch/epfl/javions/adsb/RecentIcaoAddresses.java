@@ -0,0 +1,57 @@
+package ch.epfl.javions.adsb;
+
+import ch.epfl.javions.Preconditions;
+import ch.epfl.javions.aircraft.IcaoAddress;
+
+import java.time.Duration;
+
+/**
+ * The ICAO addresses from which a message was recently received, used to check the messages
+ * whose parity is overlaid with the address of their sender.
+ * <p>
+ * The addresses are stored in a direct-mapped table, indexed by their low bits, where a new
+ * address replaces the one in its slot. The table is large enough for collisions between the
+ * few hundred aircraft visible from a receiver to be rare, and a collision only makes the
+ * messages of the replaced aircraft be rejected until it sends another message.
+ */
+public final class RecentIcaoAddresses {
+    public static final long DEFAULT_TIME_TO_LIVE_NS = Duration.ofMinutes(1).toNanos();
+
+    private static final int TABLE_SIZE = 1 << 16;
+
+    private final long timeToLiveNs;
+    // Address plus one of each slot (0 for an empty one), and time stamp of its last message.
+    private final int[] addresses;
+    private final long[] timeStampsNs;
+
+    public RecentIcaoAddresses() {
+        this(DEFAULT_TIME_TO_LIVE_NS);
+    }
+
+    public RecentIcaoAddresses(long timeToLiveNs) {
+        Preconditions.checkArgument(timeToLiveNs > 0);
+
+        this.timeToLiveNs = timeToLiveNs;
+        this.addresses = new int[TABLE_SIZE];
+        this.timeStampsNs = new long[TABLE_SIZE];
+    }
+
+    public void add(int address, long timeStampNs) {
+        Preconditions.checkArgument(address >>> IcaoAddress.SIZE == 0);
+
+        var index = slot(address);
+        addresses[index] = address + 1;
+        timeStampsNs[index] = timeStampNs;
+    }
+
+    // Returns true if a message was received from the given address at most the time to live
+    // before the given time stamp.
+    public boolean contains(int address, long timeStampNs) {
+        var index = slot(address);
+        return addresses[index] == address + 1 && timeStampNs - timeStampsNs[index] <= timeToLiveNs;
+    }
+
+    private static int slot(int address) {
+        return (address ^ (address >>> 8)) & (TABLE_SIZE - 1);
+    }
+}
@@ -0,0 +1,94 @@
+package ch.epfl.javions.adsb;
+
+import ch.epfl.javions.Crc24;
+import ch.epfl.javions.Preconditions;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Correction of long messages using the confidence of the demodulator in each of their bits.
+ * <p>
+ * When the CRC of a message is wrong, the bits with the lowest confidence are the most likely to
+ * be wrong, so combinations of them are flipped until the CRC is right, up to a maximum number of
+ * retries. As for {@link ErrorCorrector}, flipping a bit changes the syndrome of the message by the
+ * syndrome of that bit, so that each retry costs a single XOR. The combinations are enumerated in
+ * Gray code order, each one differing from the previous one by a single bit.
+ * <p>
+ * Each retry has a 2^-24 probability of turning an invalid message into a valid one, the number
+ * of retries must thus be kept small.
+ */
+public final class SoftDecisionCorrector {
+    public static final int MAX_CANDIDATE_BITS = 16;
+
+    private static final Crc24 CRC_24 = new Crc24(Crc24.GENERATOR);
+
+    private final int candidateBits;
+    private final int maxRetries;
+    private final int[] candidates;
+
+    private final AtomicLong correctedCount;
+    private final AtomicLong rejectedCount;
+
+    // Flips up to maxRetries combinations of the candidateBits bits with the lowest confidence.
+    public SoftDecisionCorrector(int candidateBits, int maxRetries) {
+        Preconditions.checkArgument(1 <= candidateBits && candidateBits <= MAX_CANDIDATE_BITS);
+        Preconditions.checkArgument(maxRetries > 0);
+
+        this.candidateBits = candidateBits;
+        this.maxRetries = Math.min(maxRetries, (1 << candidateBits) - 1);
+        this.candidates = new int[candidateBits];
+        this.correctedCount = new AtomicLong();
+        this.rejectedCount = new AtomicLong();
+    }
+
+    // Returns true if the given long message is valid, possibly after having corrected it in place.
+    // The confidence of each bit is given in bitConfidences, in any unit, the higher the better.
+    public boolean correct(byte[] bytes, int[] bitConfidences) {
+        Preconditions.checkArgument(bytes.length == RawMessage.LENGTH);
+        Preconditions.checkArgument(bitConfidences.length >= ErrorCorrector.MESSAGE_BITS);
+
+        var syndrome = CRC_24.crc(bytes);
+        if (syndrome == 0) return true;
+
+        selectCandidates(bitConfidences);
+        for (var i = 1; i <= maxRetries; i += 1) {
+            // The i-th Gray code differs from the previous one by the lowest set bit of i.
+            syndrome ^= ErrorCorrector.BIT_SYNDROMES[candidates[Integer.numberOfTrailingZeros(i)]];
+            if (syndrome == 0) {
+                var flips = i ^ (i >>> 1);
+                for (var j = 0; j < candidateBits; j += 1) {
+                    if ((flips & (1 << j)) != 0) ErrorCorrector.flipBit(bytes, candidates[j]);
+                }
+                correctedCount.incrementAndGet();
+                return true;
+            }
+        }
+        rejectedCount.incrementAndGet();
+        return false;
+    }
+
+    // Stores the positions of the candidateBits correctable bits with the lowest confidence in
+    // candidates, by increasing confidence.
+    private void selectCandidates(int[] bitConfidences) {
+        Arrays.fill(candidates, -1);
+        for (var bit = ErrorCorrector.FIRST_CORRECTABLE_BIT; bit < ErrorCorrector.MESSAGE_BITS; bit += 1) {
+            var confidence = bitConfidences[bit];
+            var j = candidateBits;
+            while (j > 0 && (candidates[j - 1] < 0 || bitConfidences[candidates[j - 1]] > confidence)) j -= 1;
+            if (j == candidateBits) continue;
+            System.arraycopy(candidates, j, candidates, j + 1, candidateBits - j - 1);
+            candidates[j] = bit;
+        }
+    }
+
+    // Number of invalid messages which were corrected.
+    public long correctedCount() {
+        return correctedCount.get();
+    }
+
+    // Number of invalid messages which couldn't be corrected.
+    public long rejectedCount() {
+        return rejectedCount.get();
+    }
+}
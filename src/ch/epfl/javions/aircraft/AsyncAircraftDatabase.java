@@ -0,0 +1,106 @@
+package ch.epfl.javions.aircraft;
+
+import ch.epfl.javions.Preconditions;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Lookups in an aircraft database done on a background thread, so that a slow database doesn't
+ * block the thread needing the data, and whose results are cached.
+ * <p>
+ * The cache keeps the lookups of the most recently requested addresses, including those of
+ * addresses not in the database, and those still in progress, so that an address is never looked
+ * up twice at the same time. A failed lookup is not cached, and is retried at the next request.
+ * <p>
+ * The addresses requested together which aren't cached are looked up together, with
+ * {@link AircraftDatabase#getAll(Collection)}, which is faster for a burst of new aircraft.
+ */
+public final class AsyncAircraftDatabase {
+    public static final int DEFAULT_MAX_CACHE_SIZE = 4096;
+
+    private static final float INITIAL_LOAD_FACTOR = 0.75f;
+
+    private final AircraftDatabase database;
+    private final Executor executor;
+    private final int maxCacheSize;
+    private final Map<IcaoAddress, CompletableFuture<AircraftData>> cache;
+
+    public AsyncAircraftDatabase(AircraftDatabase database) {
+        this(database, DEFAULT_MAX_CACHE_SIZE);
+    }
+
+    // Looks up addresses one after the other, on a daemon thread.
+    public AsyncAircraftDatabase(AircraftDatabase database, int maxCacheSize) {
+        this(database, maxCacheSize, Executors.newSingleThreadExecutor(runnable -> {
+            var thread = new Thread(runnable, "aircraft-database");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    public AsyncAircraftDatabase(AircraftDatabase database, int maxCacheSize, Executor executor) {
+        Preconditions.checkArgument(maxCacheSize > 0);
+
+        this.database = Objects.requireNonNull(database);
+        this.executor = Objects.requireNonNull(executor);
+        this.maxCacheSize = maxCacheSize;
+        var initialCapacity = (int) Math.ceil(maxCacheSize / INITIAL_LOAD_FACTOR);
+        this.cache = new LinkedHashMap<>(initialCapacity, INITIAL_LOAD_FACTOR, true);
+    }
+
+    // Returns the future data of the aircraft having the given address, null if it isn't in the
+    // database, already completed if it is cached. The future completes exceptionally with an
+    // UncheckedIOException if the lookup fails.
+    public CompletableFuture<AircraftData> get(IcaoAddress address) {
+        return getAll(List.of(address)).get(address);
+    }
+
+    // Returns the future data of the aircraft having each of the given addresses, as get does.
+    public synchronized Map<IcaoAddress, CompletableFuture<AircraftData>> getAll(Collection<IcaoAddress> addresses) {
+        var lookups = new HashMap<IcaoAddress, CompletableFuture<AircraftData>>();
+        var newLookups = new HashMap<IcaoAddress, CompletableFuture<AircraftData>>();
+        for (var address : addresses) {
+            if (lookups.containsKey(address)) continue;
+
+            var lookup = cache.get(address);
+            if (lookup == null) {
+                if (cache.size() == maxCacheSize)
+                    cache.remove(cache.keySet().iterator().next());
+                lookup = new CompletableFuture<>();
+                cache.put(address, lookup);
+                newLookups.put(address, lookup);
+            }
+            lookups.put(address, lookup);
+        }
+
+        if (!newLookups.isEmpty()) executor.execute(() -> lookUp(newLookups));
+        return lookups;
+    }
+
+    private void lookUp(Map<IcaoAddress, CompletableFuture<AircraftData>> lookups) {
+        try {
+            var data = database.getAll(lookups.keySet());
+            lookups.forEach((address, lookup) -> lookup.complete(data.get(address)));
+        } catch (IOException | RuntimeException e) {
+            var exception = e instanceof IOException ioException ? new UncheckedIOException(ioException) : e;
+            lookups.forEach((address, lookup) -> {
+                removeFailed(address, lookup);
+                lookup.completeExceptionally(exception);
+            });
+        }
+    }
+
+    private synchronized void removeFailed(IcaoAddress address, CompletableFuture<AircraftData> lookup) {
+        cache.remove(address, lookup);
+    }
+}
@@ -2,12 +2,73 @@ package ch.epfl.javions.aircraft;
 
 import ch.epfl.javions.Preconditions;
 
+import java.util.HexFormat;
 import java.util.regex.Pattern;
 
-public record IcaoAddress(String string) {
+/**
+ * An ICAO address, stored as its 24-bit value. Its textual form is only computed when needed.
+ */
+public final class IcaoAddress {
+    public static final int SIZE = 24;
+
     private static final Pattern PATTERN = Pattern.compile("[0-9A-F]{6}");
+    private static final HexFormat HEX_FORMAT = HexFormat.of().withUpperCase();
+
+    // Direct-mapped cache of the addresses created by of, where a new address replaces the one
+    // in its slot. Races only cause redundant instances, since the value is final.
+    private static final int CACHE_SIZE = 1 << 12;
+    private static final IcaoAddress[] CACHE = new IcaoAddress[CACHE_SIZE];
+
+    private final int value;
+    private String string;
 
-    public IcaoAddress {
+    public IcaoAddress(String string) {
         Preconditions.checkArgument(PATTERN.matcher(string).matches());
+        this.value = Integer.parseInt(string, 16);
+        this.string = string;
+    }
+
+    private IcaoAddress(int value) {
+        this.value = value;
+    }
+
+    public static IcaoAddress of(int value) {
+        Preconditions.checkArgument(value >>> SIZE == 0);
+
+        var index = (value ^ (value >>> 12)) & (CACHE_SIZE - 1);
+        var address = CACHE[index];
+        if (address == null || address.value != value) {
+            address = new IcaoAddress(value);
+            CACHE[index] = address;
+        }
+        return address;
+    }
+
+    public int value() {
+        return value;
+    }
+
+    public String string() {
+        var string = this.string;
+        if (string == null) {
+            string = HEX_FORMAT.toHexDigits(value, SIZE / 4);
+            this.string = string;
+        }
+        return string;
+    }
+
+    @Override
+    public boolean equals(Object that) {
+        return that instanceof IcaoAddress thatAddress && value == thatAddress.value;
+    }
+
+    @Override
+    public int hashCode() {
+        return Integer.hashCode(value);
+    }
+
+    @Override
+    public String toString() {
+        return "IcaoAddress[string=" + string() + "]";
     }
 }
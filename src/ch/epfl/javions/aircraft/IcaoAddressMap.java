@@ -0,0 +1,119 @@
+package ch.epfl.javions.aircraft;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * A map from ICAO addresses to values, keyed by the 24-bit value of the addresses so that
+ * neither the addresses nor their hash codes are needed to access it.
+ * <p>
+ * The entries are stored in an open addressing table with linear probing, with deletions
+ * shifting the following entries back so that no tombstones are needed.
+ */
+public final class IcaoAddressMap<V> {
+    private static final int INITIAL_CAPACITY = 1 << 6;
+    // Golden ratio multiplier, spreading consecutive addresses over the table.
+    private static final int HASH_MULTIPLIER = 0x9E3779B9;
+
+    private int[] keys;
+    // A null value marks an empty slot.
+    private V[] values;
+    private int shift;
+    private int size;
+
+    public IcaoAddressMap() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public V get(IcaoAddress address) {
+        return get(address.value());
+    }
+
+    public V get(int address) {
+        var mask = keys.length - 1;
+        for (var i = slot(address); values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == address) return values[i];
+        }
+        return null;
+    }
+
+    public V put(IcaoAddress address, V value) {
+        return put(address.value(), value);
+    }
+
+    public V put(int address, V value) {
+        Objects.requireNonNull(value);
+
+        var mask = keys.length - 1;
+        var i = slot(address);
+        for (; values[i] != null; i = (i + 1) & mask) {
+            if (keys[i] == address) {
+                var oldValue = values[i];
+                values[i] = value;
+                return oldValue;
+            }
+        }
+
+        keys[i] = address;
+        values[i] = value;
+        size += 1;
+        // Keep the load factor at most 1/2.
+        if (2 * size > keys.length) allocate(2 * keys.length);
+        return null;
+    }
+
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    // Removes the entries whose value satisfies the predicate.
+    public void removeIf(Predicate<? super V> predicate) {
+        var i = 0;
+        while (i < values.length) {
+            // Removing the entry at i can shift another one into it, which is then tested too.
+            if (values[i] != null && predicate.test(values[i])) removeAt(i);
+            else i += 1;
+        }
+    }
+
+    private void removeAt(int hole) {
+        var mask = keys.length - 1;
+        for (var i = (hole + 1) & mask; values[i] != null; i = (i + 1) & mask) {
+            // The entry at i can fill the hole if its slot isn't cyclically in (hole, i].
+            var slot = slot(keys[i]);
+            if (((i - slot) & mask) >= ((i - hole) & mask)) {
+                keys[hole] = keys[i];
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+        values[hole] = null;
+        size -= 1;
+    }
+
+    private int slot(int address) {
+        return (address * HASH_MULTIPLIER) >>> shift;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void allocate(int capacity) {
+        var oldKeys = keys;
+        var oldValues = values;
+
+        keys = new int[capacity];
+        values = (V[]) new Object[capacity];
+        shift = Integer.SIZE - Integer.numberOfTrailingZeros(capacity);
+        size = 0;
+
+        if (oldValues == null) return;
+        for (var i = 0; i < oldValues.length; i += 1) {
+            if (oldValues[i] != null) put(oldKeys[i], oldValues[i]);
+        }
+    }
+}
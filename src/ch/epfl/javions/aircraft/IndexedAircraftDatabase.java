@@ -0,0 +1,173 @@
+package ch.epfl.javions.aircraft;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.regex.Pattern;
+import java.util.zip.ZipFile;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * An aircraft database loaded in memory once, from the zip file read by {@link ZipAircraftDatabase},
+ * and looked up by binary search.
+ * <p>
+ * The addresses of the aircraft are stored sorted in an array of ints. The strings of each aircraft
+ * (registration, type designator, model and description) are stored as indices of the distinct
+ * strings of the database, themselves stored one after the other in a single string. The heap
+ * footprint is thus 21 bytes per aircraft (an address, four indices and a wake turbulence
+ * category), plus 4 bytes and the characters (one byte each, unless some aren't Latin-1) of each
+ * distinct string. Since models and descriptions are shared by many aircraft, the registrations
+ * make up most of the distinct strings.
+ */
+public final class IndexedAircraftDatabase implements AircraftDatabase {
+    private static final String SEPARATOR = Pattern.quote(",");
+
+    // Indices of the strings of an aircraft in stringIndices.
+    private static final int REGISTRATION = 0;
+    private static final int TYPE_DESIGNATOR = 1;
+    private static final int MODEL = 2;
+    private static final int DESCRIPTION = 3;
+    private static final int STRINGS_PER_AIRCRAFT = 4;
+
+    private static final WakeTurbulenceCategory[] WAKE_TURBULENCE_CATEGORIES = WakeTurbulenceCategory.values();
+
+    private final int[] addresses;
+    private final int[] stringIndices;
+    private final byte[] wakeTurbulenceCategories;
+    // The distinct strings, string i going from stringStarts[i] to stringStarts[i + 1] in strings.
+    private final String strings;
+    private final int[] stringStarts;
+
+    private IndexedAircraftDatabase(int[] addresses,
+                                    int[] stringIndices,
+                                    byte[] wakeTurbulenceCategories,
+                                    String strings,
+                                    int[] stringStarts) {
+        this.addresses = addresses;
+        this.stringIndices = stringIndices;
+        this.wakeTurbulenceCategories = wakeTurbulenceCategories;
+        this.strings = strings;
+        this.stringStarts = stringStarts;
+    }
+
+    // Reads all the entries of the given zip file.
+    public static IndexedAircraftDatabase load(String fileName) throws IOException {
+        var builder = new Builder();
+        try (var zipFile = new ZipFile(fileName)) {
+            var entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                try (var entryStream = zipFile.getInputStream(entries.nextElement());
+                     var reader = new BufferedReader(new InputStreamReader(entryStream, UTF_8))) {
+                    for (var line = reader.readLine(); line != null; line = reader.readLine())
+                        builder.add(line);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    public int size() {
+        return addresses.length;
+    }
+
+    @Override
+    public AircraftData get(IcaoAddress address) {
+        var i = Arrays.binarySearch(addresses, address.value());
+        return i < 0 ? null : data(i);
+    }
+
+    // Address of the i-th aircraft, by increasing address.
+    int address(int i) {
+        return addresses[i];
+    }
+
+    // Data of the i-th aircraft, by increasing address.
+    AircraftData data(int i) {
+        var base = i * STRINGS_PER_AIRCRAFT;
+        return new AircraftData(
+                new AircraftRegistration(string(stringIndices[base + REGISTRATION])),
+                new AircraftTypeDesignator(string(stringIndices[base + TYPE_DESIGNATOR])),
+                string(stringIndices[base + MODEL]),
+                new AircraftDescription(string(stringIndices[base + DESCRIPTION])),
+                WAKE_TURBULENCE_CATEGORIES[wakeTurbulenceCategories[i]]);
+    }
+
+    private String string(int index) {
+        return strings.substring(stringStarts[index], stringStarts[index + 1]);
+    }
+
+    private static final class Builder {
+        private int size = 0;
+        private int[] addresses = new int[1 << 16];
+        private int[] stringIndices = new int[addresses.length * STRINGS_PER_AIRCRAFT];
+        private byte[] wakeTurbulenceCategories = new byte[addresses.length];
+        private final HashMap<String, Integer> distinctStrings = new HashMap<>();
+        private final StringBuilder strings = new StringBuilder();
+        private int[] stringStarts = new int[1 << 16];
+
+        // Format: ICAO,Registration,Designator,Model,Description,WTC
+        void add(String line) {
+            var columns = line.split(SEPARATOR, -1);
+            if (size == addresses.length) {
+                addresses = Arrays.copyOf(addresses, 2 * size);
+                stringIndices = Arrays.copyOf(stringIndices, 2 * size * STRINGS_PER_AIRCRAFT);
+                wakeTurbulenceCategories = Arrays.copyOf(wakeTurbulenceCategories, 2 * size);
+            }
+
+            addresses[size] = new IcaoAddress(columns[0]).value();
+            var base = size * STRINGS_PER_AIRCRAFT;
+            stringIndices[base + REGISTRATION] = stringIndex(new AircraftRegistration(columns[1]).string());
+            stringIndices[base + TYPE_DESIGNATOR] = stringIndex(new AircraftTypeDesignator(columns[2]).string());
+            stringIndices[base + MODEL] = stringIndex(columns[3]);
+            stringIndices[base + DESCRIPTION] = stringIndex(new AircraftDescription(columns[4]).string());
+            wakeTurbulenceCategories[size] = (byte) WakeTurbulenceCategory.of(columns[5]).ordinal();
+            size += 1;
+        }
+
+        private int stringIndex(String string) {
+            var index = distinctStrings.get(string);
+            if (index != null) return index;
+
+            index = distinctStrings.size();
+            distinctStrings.put(string, index);
+            if (index + 1 == stringStarts.length) stringStarts = Arrays.copyOf(stringStarts, 2 * stringStarts.length);
+            strings.append(string);
+            stringStarts[index + 1] = strings.length();
+            return index;
+        }
+
+        IndexedAircraftDatabase build() {
+            // Sort by address, then by position in the file, keeping only the first aircraft
+            // having a given address, which is the one found by ZipAircraftDatabase.
+            var keys = new long[size];
+            for (var i = 0; i < size; i += 1) keys[i] = (long) addresses[i] << Integer.SIZE | i;
+            Arrays.sort(keys);
+
+            var sortedAddresses = new int[size];
+            var sortedStringIndices = new int[size * STRINGS_PER_AIRCRAFT];
+            var sortedCategories = new byte[size];
+            var count = 0;
+            for (var key : keys) {
+                var address = (int) (key >>> Integer.SIZE);
+                if (count > 0 && sortedAddresses[count - 1] == address) continue;
+
+                var i = (int) key;
+                sortedAddresses[count] = address;
+                System.arraycopy(stringIndices, i * STRINGS_PER_AIRCRAFT,
+                        sortedStringIndices, count * STRINGS_PER_AIRCRAFT, STRINGS_PER_AIRCRAFT);
+                sortedCategories[count] = wakeTurbulenceCategories[i];
+                count += 1;
+            }
+
+            return new IndexedAircraftDatabase(
+                    Arrays.copyOf(sortedAddresses, count),
+                    Arrays.copyOf(sortedStringIndices, count * STRINGS_PER_AIRCRAFT),
+                    Arrays.copyOf(sortedCategories, count),
+                    strings.toString(),
+                    Arrays.copyOf(stringStarts, distinctStrings.size() + 1));
+        }
+    }
+}
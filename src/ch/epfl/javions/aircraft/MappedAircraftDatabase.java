@@ -0,0 +1,177 @@
+package ch.epfl.javions.aircraft;
+
+import ch.epfl.javions.Preconditions;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * An aircraft database stored in a binary file mapped in memory, which is neither parsed when
+ * opened nor copied to the heap, only the data of the aircraft looked up being decoded.
+ * <p>
+ * The file, written by {@link #convert(String, Path)}, is made of (all integers being big-endian):
+ * <ul>
+ *     <li>a header of four ints: {@link #MAGIC}, {@link #VERSION}, the number n of aircraft and
+ *     the size in bytes of the string table,</li>
+ *     <li>the addresses of the aircraft, sorted, each in 3 bytes,</li>
+ *     <li>n records of 17 bytes, in the same order: the offsets in the string
+ *     table of the registration, type designator, model and description of the aircraft, each in
+ *     an int, and the ordinal of its wake turbulence category in a byte,</li>
+ *     <li>the string table, where each distinct string is stored once, in UTF-8, preceded by its
+ *     length in a byte.</li>
+ * </ul>
+ */
+public final class MappedAircraftDatabase implements AircraftDatabase {
+    public static final int MAGIC = 0x4A564144; // "JVAD"
+    public static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 4 * Integer.BYTES;
+    private static final int ADDRESS_BYTES = 3;
+    private static final int STRINGS_PER_AIRCRAFT = 4;
+    private static final int RECORD_BYTES = STRINGS_PER_AIRCRAFT * Integer.BYTES + 1;
+    private static final int MAX_STRING_BYTES = (1 << Byte.SIZE) - 1;
+
+    private static final WakeTurbulenceCategory[] WAKE_TURBULENCE_CATEGORIES = WakeTurbulenceCategory.values();
+
+    // Only absolute accesses are made to the buffer, which can therefore be shared by threads.
+    private final ByteBuffer buffer;
+    private final int size;
+    private final int recordsStart;
+    private final int stringsStart;
+
+    private MappedAircraftDatabase(ByteBuffer buffer, int size) {
+        this.buffer = buffer;
+        this.size = size;
+        this.recordsStart = HEADER_BYTES + size * ADDRESS_BYTES;
+        this.stringsStart = recordsStart + size * RECORD_BYTES;
+    }
+
+    public static MappedAircraftDatabase open(Path file) throws IOException {
+        ByteBuffer buffer;
+        // The mapping stays valid once the channel is closed.
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.capacity() < HEADER_BYTES
+                || buffer.getInt(0) != MAGIC
+                || buffer.getInt(Integer.BYTES) != VERSION) {
+            throw new IOException("Not an aircraft database: " + file);
+        }
+        var size = buffer.getInt(2 * Integer.BYTES);
+        var stringsBytes = buffer.getInt(3 * Integer.BYTES);
+        if (size < 0 || stringsBytes < 0
+                || HEADER_BYTES + (long) size * (ADDRESS_BYTES + RECORD_BYTES) + stringsBytes != buffer.capacity()) {
+            throw new IOException("Truncated aircraft database: " + file);
+        }
+        return new MappedAircraftDatabase(buffer, size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public AircraftData get(IcaoAddress address) {
+        var value = address.value();
+        var low = 0;
+        var high = size - 1;
+        while (low <= high) {
+            var middle = (low + high) >>> 1;
+            var middleValue = address(middle);
+            if (middleValue < value)
+                low = middle + 1;
+            else if (middleValue > value)
+                high = middle - 1;
+            else
+                return data(middle);
+        }
+        return null;
+    }
+
+    private int address(int i) {
+        var offset = HEADER_BYTES + i * ADDRESS_BYTES;
+        return Byte.toUnsignedInt(buffer.get(offset)) << Short.SIZE
+                | Short.toUnsignedInt(buffer.getShort(offset + 1));
+    }
+
+    private AircraftData data(int i) {
+        var offset = recordsStart + i * RECORD_BYTES;
+        return new AircraftData(
+                new AircraftRegistration(string(buffer.getInt(offset))),
+                new AircraftTypeDesignator(string(buffer.getInt(offset + Integer.BYTES))),
+                string(buffer.getInt(offset + 2 * Integer.BYTES)),
+                new AircraftDescription(string(buffer.getInt(offset + 3 * Integer.BYTES))),
+                WAKE_TURBULENCE_CATEGORIES[buffer.get(offset + STRINGS_PER_AIRCRAFT * Integer.BYTES)]);
+    }
+
+    private String string(int stringOffset) {
+        var offset = stringsStart + stringOffset;
+        var bytes = new byte[Byte.toUnsignedInt(buffer.get(offset))];
+        buffer.get(offset + 1, bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    // Writes the database in the given zip file, in the format read by ZipAircraftDatabase, to the
+    // given binary file.
+    public static void convert(String zipFileName, Path binaryFile) throws IOException {
+        var database = IndexedAircraftDatabase.load(zipFileName);
+        var size = database.size();
+
+        var addresses = new byte[size * ADDRESS_BYTES];
+        var records = new byte[size * RECORD_BYTES];
+        var recordsBuffer = ByteBuffer.wrap(records);
+        var strings = new StringTable();
+        for (var i = 0; i < size; i += 1) {
+            var address = database.address(i);
+            addresses[i * ADDRESS_BYTES] = (byte) (address >>> Short.SIZE);
+            addresses[i * ADDRESS_BYTES + 1] = (byte) (address >>> Byte.SIZE);
+            addresses[i * ADDRESS_BYTES + 2] = (byte) address;
+
+            var data = database.data(i);
+            recordsBuffer.putInt(strings.offset(data.registration().string()))
+                    .putInt(strings.offset(data.typeDesignator().string()))
+                    .putInt(strings.offset(data.model()))
+                    .putInt(strings.offset(data.description().string()))
+                    .put((byte) data.wakeTurbulenceCategory().ordinal());
+        }
+
+        try (var stream = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(binaryFile)))) {
+            stream.writeInt(MAGIC);
+            stream.writeInt(VERSION);
+            stream.writeInt(size);
+            stream.writeInt(strings.bytes.size());
+            stream.write(addresses);
+            stream.write(records);
+            strings.bytes.writeTo(stream);
+        }
+    }
+
+    private static final class StringTable {
+        private final HashMap<String, Integer> offsets = new HashMap<>();
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        int offset(String string) {
+            var offset = offsets.get(string);
+            if (offset != null) return offset;
+
+            var stringBytes = string.getBytes(UTF_8);
+            Preconditions.checkArgument(stringBytes.length <= MAX_STRING_BYTES);
+            offset = bytes.size();
+            offsets.put(string, offset);
+            bytes.write(stringBytes.length);
+            bytes.writeBytes(stringBytes);
+            return offset;
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package ch.epfl.javions.aircraft;
+
+import ch.epfl.javions.Preconditions;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.zip.ZipFile;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The aircraft database in the zip file where it is distributed, the aircraft whose address ends
+ * with the same two hexadecimal digits being in the same CSV entry, sorted by address.
+ * <p>
+ * The zip file is opened at the first lookup and kept open until the database is closed. The
+ * first lookup in an entry reads it and indexes the address and start of each of its lines, so
+ * that the next lookups only parse the line of their aircraft. The most recently used entries are
+ * kept in memory, up to a given total size of their uncompressed bytes ({@link
+ * #DEFAULT_MAX_CACHED_BYTES} by default), the others being read again when needed. The whole
+ * database is kept in memory if it is smaller than that size.
+ * <p>
+ * Lookups can be made concurrently by several threads, closing the database waiting for those in
+ * progress to finish.
+ */
+public final class ZipAircraftDatabase implements AircraftDatabase, Closeable {
+    public static final long DEFAULT_MAX_CACHED_BYTES = 32L << 20;
+
+    private static final String SEPARATOR = Pattern.quote(",");
+    private static final int ENTRIES_COUNT = 1 << Byte.SIZE;
+    private static final int ADDRESS_CHARS = IcaoAddress.SIZE / 4;
+    private static final float INITIAL_LOAD_FACTOR = 0.75f;
+
+    // The lines of an entry, and the address and start of each of them, the end of the last line
+    // being the start of an extra one.
+    private record EntryIndex(byte[] bytes, int[] addresses, int[] lineStarts) {
+        static final EntryIndex EMPTY = new EntryIndex(new byte[0], new int[0], new int[]{0});
+
+        static EntryIndex of(byte[] bytes) {
+            var addresses = new int[bytes.length / ADDRESS_CHARS + 1];
+            var lineStarts = new int[addresses.length + 1];
+            var count = 0;
+            var start = 0;
+            while (start < bytes.length) {
+                var end = start;
+                while (end < bytes.length && bytes[end] != '\n') end += 1;
+                if (end - start >= ADDRESS_CHARS) {
+                    addresses[count] = HexFormat.fromHexDigits(new String(bytes, start, ADDRESS_CHARS, UTF_8));
+                    lineStarts[count] = start;
+                    lineStarts[count + 1] = end + 1;
+                    count += 1;
+                }
+                start = end + 1;
+            }
+            return new EntryIndex(bytes, Arrays.copyOf(addresses, count), Arrays.copyOf(lineStarts, count + 1));
+        }
+
+        // Returns the line of the given address, without its line terminator, or null if there
+        // is none. If several lines have that address, the first one is returned.
+        String line(int address) {
+            var i = Arrays.binarySearch(addresses, address);
+            if (i < 0) return null;
+            while (i > 0 && addresses[i - 1] == address) i -= 1;
+
+            var start = lineStarts[i];
+            var end = lineStarts[i + 1] - 1;
+            if (end > 0 && bytes[end - 1] == '\r') end -= 1;
+            return new String(bytes, start, end - start, UTF_8);
+        }
+    }
+
+    private final String fileName;
+    // Lookups hold the read lock, and closing the zip file the write lock.
+    private final ReadWriteLock lock;
+    private ZipFile zipFile;
+    private final long maxCachedBytes;
+    // Index of the most recently used entries, by entry number, and total size of their bytes,
+    // guarded by entryIndices.
+    private final Map<Integer, EntryIndex> entryIndices;
+    private long cachedBytes;
+
+    public ZipAircraftDatabase(String fileName) {
+        this(fileName, DEFAULT_MAX_CACHED_BYTES);
+    }
+
+    public ZipAircraftDatabase(String fileName, long maxCachedBytes) {
+        Preconditions.checkArgument(maxCachedBytes >= 0);
+
+        this.fileName = Objects.requireNonNull(fileName);
+        this.lock = new ReentrantReadWriteLock();
+        this.maxCachedBytes = maxCachedBytes;
+        var initialCapacity = (int) Math.ceil(ENTRIES_COUNT / INITIAL_LOAD_FACTOR);
+        this.entryIndices = new LinkedHashMap<>(initialCapacity, INITIAL_LOAD_FACTOR, true);
+        this.cachedBytes = 0;
+    }
+
+    @Override
+    public AircraftData get(IcaoAddress address) throws IOException {
+        lock.readLock().lock();
+        try {
+            return data(entryIndex(entry(address)), address);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Groups the addresses by entry, so that each entry is looked up once.
+    @Override
+    public Map<IcaoAddress, AircraftData> getAll(Collection<IcaoAddress> addresses) throws IOException {
+        var addressesByEntry = new ArrayList<List<IcaoAddress>>(ENTRIES_COUNT);
+        for (var i = 0; i < ENTRIES_COUNT; i += 1) addressesByEntry.add(new ArrayList<>());
+        for (var address : addresses) addressesByEntry.get(entry(address)).add(address);
+
+        var data = new HashMap<IcaoAddress, AircraftData>();
+        lock.readLock().lock();
+        try {
+            for (var entry = 0; entry < ENTRIES_COUNT; entry += 1) {
+                var entryAddresses = addressesByEntry.get(entry);
+                if (entryAddresses.isEmpty()) continue;
+
+                var entryIndex = entryIndex(entry);
+                for (var address : entryAddresses) {
+                    var aircraftData = data(entryIndex, address);
+                    if (aircraftData != null) data.put(address, aircraftData);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return data;
+    }
+
+    private static int entry(IcaoAddress address) {
+        return address.value() & (ENTRIES_COUNT - 1);
+    }
+
+    private static AircraftData data(EntryIndex entryIndex, IcaoAddress address) {
+        var line = entryIndex.line(address.value());
+        if (line == null) return null;
+
+        // Format: ICAO,Registration,Designator,Model,Description,WTC
+        var columns = line.split(SEPARATOR, -1);
+        assert columns[0].equals(address.string());
+        return new AircraftData(
+                new AircraftRegistration(columns[1]),
+                new AircraftTypeDesignator(columns[2]),
+                columns[3],
+                new AircraftDescription(columns[4]),
+                WakeTurbulenceCategory.of(columns[5]));
+    }
+
+    // Must be called with the read lock held.
+    private EntryIndex entryIndex(int entry) throws IOException {
+        synchronized (entryIndices) {
+            var entryIndex = entryIndices.get(entry);
+            if (entryIndex != null) return entryIndex;
+        }
+
+        // Two threads may read the same entry at the same time, the index of the first one to
+        // finish being kept.
+        EntryIndex entryIndex;
+        var zipFile = zipFile();
+        var zipEntry = zipFile.getEntry("%02X.csv".formatted(entry));
+        if (zipEntry == null) {
+            entryIndex = EntryIndex.EMPTY;
+        } else {
+            try (var entryStream = zipFile.getInputStream(zipEntry)) {
+                entryIndex = EntryIndex.of(entryStream.readAllBytes());
+            }
+        }
+        synchronized (entryIndices) {
+            var previousIndex = entryIndices.putIfAbsent(entry, entryIndex);
+            if (previousIndex != null) return previousIndex;
+            cachedBytes += entryIndex.bytes().length;
+            var iterator = entryIndices.values().iterator();
+            while (cachedBytes > maxCachedBytes) {
+                cachedBytes -= iterator.next().bytes().length;
+                iterator.remove();
+            }
+            return entryIndex;
+        }
+    }
+
+    private synchronized ZipFile zipFile() throws IOException {
+        if (zipFile == null) zipFile = new ZipFile(fileName);
+        return zipFile;
+    }
+
+    // Closes the zip file once the lookups in progress are finished. It is reopened if an entry
+    // which isn't in memory is looked up.
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            synchronized (this) {
+                if (zipFile == null) return;
+                zipFile.close();
+                zipFile = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -1,10 +1,30 @@
 package ch.epfl.javions.demodulation;
 
+import ch.epfl.javions.ByteString;
+import ch.epfl.javions.Preconditions;
+import ch.epfl.javions.adsb.ErrorCorrector;
+import ch.epfl.javions.adsb.MutableRawMessage;
 import ch.epfl.javions.adsb.RawMessage;
+import ch.epfl.javions.adsb.RecentIcaoAddresses;
+import ch.epfl.javions.adsb.SoftDecisionCorrector;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Objects;
 
+/**
+ * Demodulator of the Mode S messages, short and long, of all downlink formats.
+ * <p>
+ * The samples of a valid message are skipped, so that no other message is looked for in them.
+ * The validity of messages whose parity is overlaid with the address of their sender depends on
+ * the addresses of the messages received before, though. To keep the positions at which messages
+ * are looked for independent of the past, such messages are therefore not skipped.
+ * <p>
+ * The power samples are those of the AirSpy by default, but can have any {@link SampleTiming}.
+ * The preamble is then looked for at each of its phases, and the bits are read at the one whose
+ * power correlates best with the preamble, i.e. whose pulses are the strongest relative to the
+ * valleys between them. Only the AirSpy samples are scanned in bulk.
+ */
 public final class AdsbDemodulator {
     // Number of samples per pulse (half bit, i.e. half a microsecond).
     // (The AirSpy samples at 20MHz, we compute the signal power at 10MHz).
@@ -12,40 +32,373 @@ public final class AdsbDemodulator {
     private static final int BIT_WIDTH = 2 * PULSE_WIDTH;
     private static final int PREAMBLE_WIDTH = 8 * BIT_WIDTH;
     private static final int BYTE_WIDTH = Byte.SIZE * BIT_WIDTH;
-    private static final int LONG_MESSAGE_WIDTH = PREAMBLE_WIDTH + RawMessage.LENGTH * BYTE_WIDTH;
+    static final int LONG_MESSAGE_WIDTH = PREAMBLE_WIDTH + RawMessage.LENGTH * BYTE_WIDTH;
 
-    private static final long NANOSECONDS_PER_SAMPLE = 100;
+    // Number of samples spanned by the computation of the next peak power.
+    private static final int PEAK_SPAN = 1 + 9 * PULSE_WIDTH + 1;
+    private static final int SCAN_BLOCK_SIZE = 1 << 10;
+
+    static final long NANOSECONDS_PER_SAMPLE = 100;
+
+    // Offsets, in microseconds from the start of the preamble, of its pulses, of the valleys
+    // between them, and of the first bit.
+    private static final double[] PREAMBLE_PULSES_US = {0, 1, 3.5, 4.5};
+    private static final double[] PREAMBLE_VALLEYS_US = {0.5, 1.5, 2, 2.5, 3, 4};
+    private static final double PREAMBLE_US = 8;
+    private static final double PULSE_US = 0.5;
+
+    // Positions within the window are in fixed point, with this number of fractional bits.
+    private static final int POSITION_FRACTION_BITS = 8;
+    private static final int POSITION_FRACTION_MASK = (1 << POSITION_FRACTION_BITS) - 1;
+
+    // Results of the check for a message at the head of the window.
+    private static final int NO_MESSAGE = 0;
+    private static final int SKIPPED_MESSAGE = 1;
+    private static final int UNSKIPPED_MESSAGE = 2;
 
     private final PowerWindow window;
-    private final byte[] messageBuffer = new byte[RawMessage.LENGTH];
+    private final long firstPosition;
+    private final SampleTiming timing;
+    // The AirSpy samples are read at fixed offsets, without going through the positions below.
+    private final boolean isAirSpy;
+    // Positions of the pulses of the preamble, of its valleys, and of the two pulses of each bit,
+    // relative to the head of the window, for each phase.
+    private final int[][] pulsePositions;
+    private final int[][] valleyPositions;
+    private final int[][] bitPositions;
+    private final int shortMessageWidth;
+    private final int longMessageWidth;
+    private final byte[] longMessageBuffer = new byte[RawMessage.LENGTH];
+    private final byte[] shortMessageBuffer = new byte[RawMessage.SHORT_LENGTH];
+    private byte[] messageBuffer;
+    private long messageTimeStampNs;
+    private final int[] nextPeakPowers = new int[SCAN_BLOCK_SIZE];
+    // Difference between the powers of the two pulses of each bit of the message, and peak power
+    // of its preamble, from which the confidence in each bit is computed.
+    private final int[] bitPowerDifferences = new int[RawMessage.LENGTH * Byte.SIZE];
+    private int messagePeakPower;
+    private ErrorCorrector errorCorrector = null;
+    private SoftDecisionCorrector softDecisionCorrector = null;
+    private RecentIcaoAddresses recentAddresses = new RecentIcaoAddresses();
+    private double minSignalToNoiseRatio = 0;
+    private boolean earlyRejection = false;
+
+    // Number of preambles found, and of messages decoded from them whose CRC was checked, and was
+    // valid (possibly after correction, or with a known address).
+    private long preamblesCount = 0;
+    private long crcCheckedCount = 0;
+    private long crcPassedCount = 0;
+
+    // Peak powers at the position before the head and at the head, kept between two messages when
+    // the samples of the first one were not skipped.
+    private int pPrev = 0;
+    private int pCurr = 0;
 
     public AdsbDemodulator(InputStream samplesStream) throws IOException {
-        this.window = new PowerWindow(samplesStream, LONG_MESSAGE_WIDTH);
+        this(samplesStream, 0);
+    }
+
+    public AdsbDemodulator(SampleSource samplesSource) throws IOException {
+        this(new PowerWindow(samplesSource, LONG_MESSAGE_WIDTH), 0);
+    }
+
+    // Demodulates the power samples of the given source, of the given timing.
+    public AdsbDemodulator(PowerSource powerSource, SampleTiming timing) throws IOException {
+        this(new PowerWindow(powerSource, windowSize(timing)), 0, timing);
+    }
+
+    // The stream starts with the samples at the given position, used to compute time stamps.
+    AdsbDemodulator(InputStream samplesStream, long firstPosition) throws IOException {
+        this(new PowerWindow(samplesStream, LONG_MESSAGE_WIDTH), firstPosition);
+    }
+
+    AdsbDemodulator(PowerWindow window, long firstPosition) {
+        this(window, firstPosition, SampleTiming.AIRSPY);
+    }
+
+    private AdsbDemodulator(PowerWindow window, long firstPosition, SampleTiming timing) {
+        Preconditions.checkArgument(window.size() >= windowSize(timing));
+
+        var phases = timing.phases();
+        var pulsePositions = new int[phases][PREAMBLE_PULSES_US.length];
+        var valleyPositions = new int[phases][PREAMBLE_VALLEYS_US.length];
+        var bitPositions = new int[phases][2 * RawMessage.LENGTH * Byte.SIZE];
+        for (var phase = 0; phase < phases; phase += 1) {
+            for (var i = 0; i < PREAMBLE_PULSES_US.length; i += 1)
+                pulsePositions[phase][i] = position(timing, phase, PREAMBLE_PULSES_US[i]);
+            for (var i = 0; i < PREAMBLE_VALLEYS_US.length; i += 1)
+                valleyPositions[phase][i] = position(timing, phase, PREAMBLE_VALLEYS_US[i]);
+            for (var i = 0; i < bitPositions[phase].length; i += 1)
+                bitPositions[phase][i] = position(timing, phase, PREAMBLE_US + i * PULSE_US);
+        }
+
+        this.window = window;
+        this.firstPosition = firstPosition;
+        this.timing = timing;
+        this.isAirSpy = timing.equals(SampleTiming.AIRSPY);
+        this.pulsePositions = pulsePositions;
+        this.valleyPositions = valleyPositions;
+        this.bitPositions = bitPositions;
+        this.shortMessageWidth = samples(timing, messageDurationUs(RawMessage.SHORT_LENGTH));
+        this.longMessageWidth = samples(timing, messageDurationUs(RawMessage.LENGTH));
+    }
+
+    // Fixed point position, relative to the head of the window, of the given offset from the
+    // start of a message at the given phase.
+    private static int position(SampleTiming timing, int phase, double offsetUs) {
+        var position = (double) phase / timing.phases() + offsetUs * timing.samplesPerMicrosecond();
+        return (int) Math.round(position * (1 << POSITION_FRACTION_BITS));
+    }
+
+    // Number of samples spanning the given duration (rounded down when within rounding errors
+    // of an integer).
+    private static int samples(SampleTiming timing, double durationUs) {
+        return (int) Math.ceil(durationUs * timing.samplesPerMicrosecond() - 1e-9);
+    }
+
+    private static double messageDurationUs(int messageLength) {
+        return PREAMBLE_US + messageLength * Byte.SIZE * 2 * PULSE_US;
+    }
+
+    // Size of a window holding a long message, as well as the samples used to interpolate the
+    // power of its last pulse at the last phase, and to compute the peak power after the head.
+    private static int windowSize(SampleTiming timing) {
+        var lastPulseUs = messageDurationUs(RawMessage.LENGTH) - PULSE_US;
+        var lastPulseIndex = position(timing, timing.phases() - 1, lastPulseUs) >>> POSITION_FRACTION_BITS;
+        return Math.max(samples(timing, messageDurationUs(RawMessage.LENGTH)), lastPulseIndex + 3);
+    }
+
+    // Makes the demodulator correct the invalid messages with the given corrector, or not correct
+    // them at all if it is null.
+    public void setErrorCorrector(ErrorCorrector errorCorrector) {
+        this.errorCorrector = errorCorrector;
+    }
+
+    // Makes the demodulator correct the long invalid messages not corrected by the error corrector
+    // (if any) by flipping their bits with the lowest confidence, or not at all if it is null.
+    public void setSoftDecisionCorrector(SoftDecisionCorrector softDecisionCorrector) {
+        this.softDecisionCorrector = softDecisionCorrector;
+    }
+
+    // Makes the demodulator check the messages having an address/parity against the given
+    // addresses, or return all of them, without any check, if it is null.
+    void setRecentAddresses(RecentIcaoAddresses recentAddresses) {
+        this.recentAddresses = recentAddresses;
+    }
+
+    // Makes the demodulator reject the preambles whose mean pulse power is less than the given
+    // ratio times the noise floor, before decoding them. The ratio is 0, accepting all preambles,
+    // by default. As the noise floor depends on the samples before, a demodulator using a ratio
+    // can't be parallelized.
+    public void setMinSignalToNoiseRatio(double minSignalToNoiseRatio) {
+        Preconditions.checkArgument(minSignalToNoiseRatio >= 0);
+        this.minSignalToNoiseRatio = minSignalToNoiseRatio;
+    }
+
+    // Makes the demodulator reject the messages whose first byte isn't plausible before decoding
+    // the others, and not try to correct the messages from an unknown address, or not.
+    // Rejection is disabled by default, since it prevents the correction of the rejected bits.
+    public void setEarlyRejection(boolean earlyRejection) {
+        this.earlyRejection = earlyRejection;
+    }
+
+    public long preamblesCount() {
+        return preamblesCount;
+    }
+
+    public long crcCheckedCount() {
+        return crcCheckedCount;
+    }
+
+    public long crcPassedCount() {
+        return crcPassedCount;
+    }
+
+    // Width, in samples, of a message of the given length.
+    static int messageWidth(int messageLength) {
+        return PREAMBLE_WIDTH + messageLength * BYTE_WIDTH;
+    }
+
+    void skip(int samplesCount) throws IOException {
+        window.advanceBy(samplesCount);
     }
 
     public RawMessage nextMessage() throws IOException {
-        for (int pPrev = 0, pCurr = 0, pNext;
-             window.isFull();
-             window.advance(), pPrev = pCurr, pCurr = pNext) {
-            pNext = nextPeakPower();
-            if (!(pPrev < pCurr && pCurr > pNext)) continue;
+        return findNextMessage()
+                ? new RawMessage(messageTimeStampNs, new ByteString(messageBuffer))
+                : null;
+    }
 
-            var vCurr = currentValleyPower();
-            if (pCurr < 2 * vCurr) continue;
+    // Fills the given message with the next one and returns true, or returns false if there are none.
+    public boolean nextMessage(MutableRawMessage message) throws IOException {
+        if (!findNextMessage()) return false;
+        message.set(messageTimeStampNs, messageBuffer, minBitConfidence());
+        return true;
+    }
 
-            messageBuffer[0] = getByte(0);
-            if (RawMessage.size(messageBuffer[0]) != RawMessage.LENGTH) continue;
+    // Stores the bytes and time stamp of the next message in the message fields.
+    private boolean findNextMessage() throws IOException {
+        return isAirSpy ? findNextAirSpyMessage() : findNextPhasedMessage();
+    }
 
-            for (var i = 1; i < RawMessage.LENGTH; i += 1)
-                messageBuffer[i] = getByte(i);
+    private boolean findNextAirSpyMessage() throws IOException {
+        while (window.isFull()) {
+            var blockSize = scanBlockSize();
+            if (blockSize <= 0) {
+                // Peaks can't be computed in bulk near the end of a batch, use the window.
+                var pNext = nextPeakPower();
+                var message = pPrev < pCurr && pCurr > pNext ? messageAtHead(pCurr) : NO_MESSAGE;
+                if (message == SKIPPED_MESSAGE) return true;
+                window.advance();
+                pPrev = pCurr;
+                pCurr = pNext;
+                if (message == UNSKIPPED_MESSAGE) return true;
+                continue;
+            }
 
-            var maybeMessage = RawMessage.of(timeStampNs(), messageBuffer);
-            if (maybeMessage != null) {
-                window.advanceBy(LONG_MESSAGE_WIDTH);
-                return maybeMessage;
+            computeNextPeakPowers(blockSize);
+            var headOffset = 0;
+            for (var i = 0; i < blockSize; i += 1) {
+                var pNext = nextPeakPowers[i];
+                if (pPrev < pCurr && pCurr > pNext) {
+                    window.advanceBy(i - headOffset);
+                    headOffset = i;
+                    var message = messageAtHead(pCurr);
+                    if (message == SKIPPED_MESSAGE) return true;
+                    if (message == UNSKIPPED_MESSAGE) {
+                        window.advance();
+                        pPrev = pCurr;
+                        pCurr = pNext;
+                        return true;
+                    }
+                }
+                pPrev = pCurr;
+                pCurr = pNext;
             }
+            window.advanceBy(blockSize - headOffset);
+        }
+        return false;
+    }
+
+    // The peak power at each position is the highest one among all phases.
+    private boolean findNextPhasedMessage() throws IOException {
+        while (window.isFull()) {
+            var pNext = 0;
+            for (var phase = 0; phase < timing.phases(); phase += 1)
+                pNext = Math.max(pNext, peakPower(phase, 1));
+            var message = pPrev < pCurr && pCurr > pNext ? messageAtHead(pCurr) : NO_MESSAGE;
+            if (message == SKIPPED_MESSAGE) return true;
+            window.advance();
+            pPrev = pCurr;
+            pCurr = pNext;
+            if (message == UNSKIPPED_MESSAGE) return true;
+        }
+        return false;
+    }
+
+    // Number of consecutive positions, starting at the current one, for which the window is full
+    // and the next peak power can be computed from the head batch alone.
+    private int scanBlockSize() {
+        var fullPositions = window.contiguousAvailable() - window.size() + 1;
+        var contiguousPeaks = window.contiguousAvailable() - PEAK_SPAN;
+        return Math.min(SCAN_BLOCK_SIZE, Math.min(fullPositions, contiguousPeaks));
+    }
+
+    // Straight-line loop over a plain array, which the JIT compiles to SIMD instructions.
+    private void computeNextPeakPowers(int count) {
+        var batch = window.headBatch();
+        var base = window.headIndex() + 1;
+        for (var i = 0; i < count; i += 1) {
+            var j = base + i;
+            nextPeakPowers[i] = batch[j]
+                    + batch[j + 2 * PULSE_WIDTH]
+                    + batch[j + 7 * PULSE_WIDTH]
+                    + batch[j + 9 * PULSE_WIDTH];
+        }
+    }
+
+    private int messageAtHead(int pCurr) throws IOException {
+        var minPeakPower = minSignalToNoiseRatio * PREAMBLE_PULSES_US.length * window.noiseFloor();
+        if (pCurr < minPeakPower) return NO_MESSAGE;
+
+        var phase = bestPhase();
+        var peakPower = timing.phases() == 1 ? pCurr : peakPower(phase, 0);
+        var valleyPower = valleyPower(phase);
+        if (peakPower < 2 * valleyPower) return NO_MESSAGE;
+        preamblesCount += 1;
+
+        var byte0 = getByte(phase, 0);
+        var size = RawMessage.size(byte0);
+        if (size == 0 || earlyRejection && !RawMessage.isPlausible(byte0)) return NO_MESSAGE;
+
+        var buffer = size == RawMessage.LENGTH ? longMessageBuffer : shortMessageBuffer;
+        buffer[0] = byte0;
+        for (var i = 1; i < size; i += 1)
+            buffer[i] = getByte(phase, i);
+
+        var timeStampNs = timeStampNs(phase);
+        crcCheckedCount += 1;
+        // Messages which can only be checked with the recent addresses don't skip their samples,
+        // so that the positions where messages are searched don't depend on those addresses.
+        var checkedAddress = RawMessage.hasAddressParity(RawMessage.downLinkFormat(byte0))
+                ? RawMessage.crcResidual(buffer)
+                : RawMessage.hasInterrogatorCode(buffer) ? icaoAddress(buffer) : -1;
+        if (checkedAddress >= 0) {
+            if (recentAddresses != null && !recentAddresses.contains(checkedAddress, timeStampNs)) return NO_MESSAGE;
+            crcPassedCount += 1;
+            setMessage(buffer, timeStampNs, peakPower);
+            return UNSKIPPED_MESSAGE;
+        }
+
+        var isValid = RawMessage.isValid(buffer);
+        var isCorrectable = size == RawMessage.LENGTH
+                && (!earlyRejection || recentAddresses == null || recentAddresses.contains(icaoAddress(buffer), timeStampNs));
+        if (!isValid && isCorrectable) {
+            isValid = errorCorrector != null && errorCorrector.correct(buffer)
+                    || softDecisionCorrector != null && softDecisionCorrector.correct(buffer, bitPowerDifferences);
         }
-        return null;
+        if (!isValid) return NO_MESSAGE;
+        crcPassedCount += 1;
+
+        setMessage(buffer, timeStampNs, peakPower);
+        if (recentAddresses != null && RawMessage.identifiesSender(buffer))
+            recentAddresses.add(icaoAddress(buffer), timeStampNs);
+        window.advanceBy(size == RawMessage.LENGTH ? longMessageWidth : shortMessageWidth);
+        // As when starting to look for a message, no peak can be at the new head.
+        pPrev = 0;
+        pCurr = 0;
+        return SKIPPED_MESSAGE;
+    }
+
+    private void setMessage(byte[] buffer, long timeStampNs, int peakPower) {
+        messageBuffer = buffer;
+        messageTimeStampNs = timeStampNs;
+        messagePeakPower = peakPower;
+    }
+
+    // Returns the confidence in the value of the given bit of the last message returned by
+    // nextMessage, i.e. the difference between the powers of its two pulses relative to the mean
+    // power of the pulses of the preamble. It is usually between 0 and 1, bits corrected by a
+    // corrector keeping their original confidence.
+    public double bitConfidence(int index) {
+        Objects.checkIndex(index, messageBuffer == null ? 0 : messageBuffer.length * Byte.SIZE);
+        return bitPowerDifferences[index] / (messagePeakPower / (double) PREAMBLE_PULSES_US.length);
+    }
+
+    // Returns the lowest confidence in the bits of the last message returned by nextMessage, a
+    // summary of its signal quality, or NaN if there is none.
+    public double minBitConfidence() {
+        if (messageBuffer == null) return Double.NaN;
+        var minPowerDifference = Integer.MAX_VALUE;
+        for (var i = 0; i < messageBuffer.length * Byte.SIZE; i += 1)
+            minPowerDifference = Math.min(minPowerDifference, bitPowerDifferences[i]);
+        return minPowerDifference / (messagePeakPower / (double) PREAMBLE_PULSES_US.length);
+    }
+
+    private static int icaoAddress(byte[] buffer) {
+        return Byte.toUnsignedInt(buffer[1]) << 16
+                | Byte.toUnsignedInt(buffer[2]) << 8
+                | Byte.toUnsignedInt(buffer[3]);
     }
 
     private int nextPeakPower() {
@@ -55,30 +408,83 @@ public final class AdsbDemodulator {
                 + window.get(1 + 9 * PULSE_WIDTH);
     }
 
-    private int currentValleyPower() {
-        return window.get(PULSE_WIDTH)
-                + window.get(3 * PULSE_WIDTH)
-                + window.get(4 * PULSE_WIDTH)
-                + window.get(5 * PULSE_WIDTH)
-                + window.get(6 * PULSE_WIDTH)
-                + window.get(8 * PULSE_WIDTH);
+    // Returns the phase at which the power of the preamble at the head correlates best with its
+    // pulses, i.e. the one maximizing the mean power of its pulses minus that of its valleys.
+    private int bestPhase() {
+        if (timing.phases() == 1) return 0;
+
+        var bestPhase = 0;
+        var bestCorrelation = Long.MIN_VALUE;
+        for (var phase = 0; phase < timing.phases(); phase += 1) {
+            var correlation = (long) PREAMBLE_VALLEYS_US.length * peakPower(phase, 0)
+                    - (long) PREAMBLE_PULSES_US.length * valleyPower(phase);
+            if (correlation > bestCorrelation) {
+                bestPhase = phase;
+                bestCorrelation = correlation;
+            }
+        }
+        return bestPhase;
+    }
+
+    // Peak power of the preamble at the given phase, starting the given number of samples after
+    // the head.
+    private int peakPower(int phase, int offset) {
+        var peakPower = 0;
+        for (var position : pulsePositions[phase])
+            peakPower += power(position + (offset << POSITION_FRACTION_BITS));
+        return peakPower;
     }
 
-    private long timeStampNs() {
-        return window.position() * NANOSECONDS_PER_SAMPLE;
+    private int valleyPower(int phase) {
+        if (isAirSpy) {
+            return window.get(PULSE_WIDTH)
+                    + window.get(3 * PULSE_WIDTH)
+                    + window.get(4 * PULSE_WIDTH)
+                    + window.get(5 * PULSE_WIDTH)
+                    + window.get(6 * PULSE_WIDTH)
+                    + window.get(8 * PULSE_WIDTH);
+        }
+
+        var valleyPower = 0;
+        for (var position : valleyPositions[phase])
+            valleyPower += power(position);
+        return valleyPower;
     }
 
-    private byte getByte(int i) {
+    // Power at the given fixed point position, linearly interpolated between the two closest
+    // samples.
+    private int power(int position) {
+        var index = position >>> POSITION_FRACTION_BITS;
+        var fraction = position & POSITION_FRACTION_MASK;
+        var p = window.get(index);
+        if (fraction == 0) return p;
+        var delta = (long) (window.get(index + 1) - p) * fraction;
+        return p + (int) (delta >> POSITION_FRACTION_BITS);
+    }
+
+    private long timeStampNs(int phase) {
+        var position = firstPosition + window.position() + (double) phase / timing.phases();
+        return Math.round(position * timing.nanosecondsPerSample());
+    }
+
+    private byte getByte(int phase, int i) {
         var b = 0;
         for (var j = 0; j < Byte.SIZE; j += 1)
-            b = (b << 1) | getBit(i * Byte.SIZE + j);
+            b = (b << 1) | getBit(phase, i * Byte.SIZE + j);
         return (byte) b;
     }
 
-    private int getBit(int i) {
-        var base = PREAMBLE_WIDTH + i * BIT_WIDTH;
-        var p1 = window.get(base);
-        var p2 = window.get(base + PULSE_WIDTH);
+    private int getBit(int phase, int i) {
+        int p1, p2;
+        if (isAirSpy) {
+            var base = PREAMBLE_WIDTH + i * BIT_WIDTH;
+            p1 = window.get(base);
+            p2 = window.get(base + PULSE_WIDTH);
+        } else {
+            p1 = power(bitPositions[phase][2 * i]);
+            p2 = power(bitPositions[phase][2 * i + 1]);
+        }
+        bitPowerDifferences[i] = Math.abs(p1 - p2);
         return p1 < p2 ? 0 : 1;
     }
 }
@@ -0,0 +1,61 @@
+package ch.epfl.javions.demodulation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+/**
+ * A decoder for sample files in the AirSpy format, which reads the samples directly from the
+ * memory-mapped file. Contrary to {@link SamplesDecoder}, it accepts batches of any size.
+ */
+public final class MappedSamplesDecoder implements SampleSource, Closeable {
+    private static final int BIAS = 1 << 11;
+    // Files are mapped by regions, since a single mapping can't exceed 2 GiB.
+    private static final long REGION_SIZE = 1L << 30;
+
+    private final FileChannel channel;
+    private final long fileSize;
+    private long regionEnd;
+    private ShortBuffer samples;
+
+    public MappedSamplesDecoder(Path samplesFile) throws IOException {
+        this.channel = FileChannel.open(samplesFile);
+        this.fileSize = channel.size();
+        this.regionEnd = 0;
+        this.samples = ShortBuffer.allocate(0);
+    }
+
+    @Override
+    public int readBatch(short[] batch) throws IOException {
+        var samplesRead = 0;
+        while (samplesRead < batch.length && (samples.hasRemaining() || mapNextRegion())) {
+            var count = Math.min(batch.length - samplesRead, samples.remaining());
+            samples.get(batch, samplesRead, count);
+            samplesRead += count;
+        }
+
+        for (var i = 0; i < samplesRead; i += 1)
+            batch[i] = (short) (batch[i] - BIAS);
+
+        return samplesRead;
+    }
+
+    private boolean mapNextRegion() throws IOException {
+        var regionSize = Math.min(REGION_SIZE, fileSize - regionEnd) & -Short.BYTES;
+        if (regionSize == 0) return false;
+
+        samples = channel.map(FileChannel.MapMode.READ_ONLY, regionEnd, regionSize)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .asShortBuffer();
+        regionEnd += regionSize;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,256 @@
+package ch.epfl.javions.demodulation;
+
+import ch.epfl.javions.adsb.RawMessage;
+import ch.epfl.javions.adsb.RecentIcaoAddresses;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Demodulation of a recorded sample file on several cores.
+ * <p>
+ * The file is split in chunks which are demodulated independently, each one running a bit into
+ * the next one. Since the demodulator skips the samples of every message it finds, a chunk can
+ * find different messages than the sequential demodulator at its beginning, until both find a
+ * common message. The chunks are therefore merged at the first message they have in common, and
+ * when there is none the file is demodulated sequentially until such a message is found.
+ * <p>
+ * The chunks don't know the addresses received before them, so they keep all the messages having
+ * an address/parity, which are then checked once merged. This is possible because the samples of
+ * these messages are never skipped by the demodulator, so that they don't change the positions at
+ * which the next messages are looked for.
+ * The result is thus always identical to the one of {@link AdsbDemodulator}.
+ * <p>
+ * The lowest confidence in the bits of each message (see {@link AdsbDemodulator#minBitConfidence()})
+ * can also be obtained. It only depends on the samples of the message, and is thus the same
+ * whichever chunk finds it.
+ */
+public final class ParallelAdsbDemodulator {
+    // Every power sample is computed from two 12-bit samples stored on two bytes.
+    private static final int BYTES_PER_POWER_SAMPLE = 2 * Short.BYTES;
+    // Number of power samples after which the power computer doesn't depend on earlier ones.
+    private static final int WARM_UP_SIZE = 4;
+
+    private static final long CHUNK_SIZE = 1L << 24;
+    private static final long OVERLAP_SIZE = 1L << 20;
+
+    private ParallelAdsbDemodulator() {}
+
+    public static List<RawMessage> demodulate(Path samplesFile, ForkJoinPool pool) throws IOException {
+        return demodulate(samplesFile, pool, new HashMap<>());
+    }
+
+    // Also puts the lowest confidence in the bits of each message returned in minBitConfidences.
+    public static List<RawMessage> demodulate(Path samplesFile,
+                                              ForkJoinPool pool,
+                                              Map<RawMessage, Double> minBitConfidences)
+            throws IOException {
+        var samplesCount = Files.size(samplesFile) / BYTES_PER_POWER_SAMPLE;
+        // The confidences of all the messages found by any demodulator.
+        var allMinBitConfidences = new ConcurrentHashMap<RawMessage, Double>();
+
+        var tasks = new ArrayList<Callable<Chunk>>();
+        for (var start = 0L; start < samplesCount; start += CHUNK_SIZE) {
+            var chunkStart = start;
+            var chunkEnd = Math.min(start + CHUNK_SIZE + OVERLAP_SIZE, samplesCount);
+            tasks.add(() -> new Chunk(chunkStart, demodulate(samplesFile, chunkStart, chunkEnd, allMinBitConfidences)));
+        }
+
+        var chunks = new ArrayList<Chunk>(tasks.size());
+        try {
+            for (var future : pool.invokeAll(tasks)) chunks.add(future.get());
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException ioException) throw ioException;
+            throw new Error(e.getCause());
+        } catch (InterruptedException e) {
+            throw new Error(e);
+        }
+
+        if (chunks.isEmpty()) return List.of();
+
+        var messages = checkAddressParities(merge(samplesFile, samplesCount, chunks, allMinBitConfidences));
+        for (var message : messages) minBitConfidences.put(message, allMinBitConfidences.get(message));
+        return messages;
+    }
+
+    private static List<RawMessage> merge(Path samplesFile,
+                                          long samplesCount,
+                                          List<Chunk> chunks,
+                                          Map<RawMessage, Double> minBitConfidences)
+            throws IOException {
+        var messages = new ArrayList<RawMessage>();
+        var chunkIndex = 0;
+        // Messages found by the sequential demodulator, not yet added to the result.
+        var pending = chunks.get(0).messages();
+        while (chunkIndex + 1 < chunks.size()) {
+            var nextChunk = chunks.get(chunkIndex + 1);
+            var commonIndex = firstCommonIndex(pending, nextChunk);
+            if (commonIndex >= 0) {
+                messages.addAll(pending.subList(0, commonIndex));
+                pending = nextChunk.messagesFrom(pending.get(commonIndex));
+                chunkIndex += 1;
+                continue;
+            }
+
+            // No common message: demodulate sequentially from the last known skipped one, the
+            // state of the demodulator after an unskipped one being unknown. Without any, the
+            // demodulator never skipped samples since the start of the file.
+            messages.addAll(pending);
+            pending = List.of();
+            var lastSkippedIndex = messages.size() - 1;
+            while (lastSkippedIndex >= 0 && !isSkipped(messages.get(lastSkippedIndex))) lastSkippedIndex -= 1;
+            messages.subList(lastSkippedIndex + 1, messages.size()).clear();
+            var restart = messages.isEmpty()
+                    ? 0
+                    : position(messages.get(lastSkippedIndex)) + width(messages.get(lastSkippedIndex));
+            try (var channel = FileChannel.open(samplesFile)) {
+                var demodulator = demodulator(channel, restart, samplesCount);
+                while (pending.isEmpty()) {
+                    var message = demodulator.nextMessage();
+                    if (message == null) return messages;
+                    minBitConfidences.put(message, demodulator.minBitConfidence());
+
+                    var index = (int) (position(message) / CHUNK_SIZE);
+                    if (index > chunkIndex && chunks.get(index).contains(message)) {
+                        pending = chunks.get(index).messagesFrom(message);
+                        chunkIndex = index;
+                    } else {
+                        messages.add(message);
+                    }
+                }
+            }
+        }
+        messages.addAll(pending);
+        return messages;
+    }
+
+    // Keeps the messages having an address/parity, or an interrogator code, only if their address
+    // was received recently, as the sequential demodulator does.
+    private static List<RawMessage> checkAddressParities(List<RawMessage> messages) {
+        var recentAddresses = new RecentIcaoAddresses();
+        var checkedMessages = new ArrayList<RawMessage>(messages.size());
+        for (var message : messages) {
+            var address = message.icaoAddressInt();
+            if (isSkipped(message)) {
+                if (RawMessage.identifiesSender(message.bytes().toByteArray()))
+                    recentAddresses.add(address, message.timeStampNs());
+                checkedMessages.add(message);
+            } else if (recentAddresses.contains(address, message.timeStampNs())) {
+                checkedMessages.add(message);
+            }
+        }
+        return checkedMessages;
+    }
+
+    // Returns true if the demodulator skipped the samples of the message, i.e. if it didn't have
+    // to check it with the recent addresses.
+    private static boolean isSkipped(RawMessage message) {
+        return !RawMessage.hasAddressParity(message.downLinkFormat())
+                && !RawMessage.hasInterrogatorCode(message.bytes().toByteArray());
+    }
+
+    private static int width(RawMessage message) {
+        return AdsbDemodulator.messageWidth(message.bytes().size());
+    }
+
+    private static int firstCommonIndex(List<RawMessage> messages, Chunk chunk) {
+        for (var i = 0; i < messages.size(); i += 1) {
+            if (chunk.contains(messages.get(i))) return i;
+        }
+        return -1;
+    }
+
+    private static long position(RawMessage message) {
+        return message.timeStampNs() / AdsbDemodulator.NANOSECONDS_PER_SAMPLE;
+    }
+
+    private static List<RawMessage> demodulate(Path samplesFile,
+                                               long start,
+                                               long end,
+                                               Map<RawMessage, Double> minBitConfidences)
+            throws IOException {
+        var messages = new ArrayList<RawMessage>();
+        try (var channel = FileChannel.open(samplesFile)) {
+            var demodulator = demodulator(channel, start, end);
+            for (var m = demodulator.nextMessage(); m != null; m = demodulator.nextMessage()) {
+                messages.add(m);
+                minBitConfidences.put(m, demodulator.minBitConfidence());
+            }
+        }
+        return messages;
+    }
+
+    // Returns a demodulator for the power samples in [start, end), in the same state as the
+    // sequential demodulator when it starts looking for a message at start, except that it
+    // returns all the messages having an address/parity.
+    private static AdsbDemodulator demodulator(FileChannel channel, long start, long end) throws IOException {
+        var warmUpSize = (int) Math.min(start, WARM_UP_SIZE);
+        var firstPosition = start - warmUpSize;
+        channel.position(firstPosition * BYTES_PER_POWER_SAMPLE);
+        var stream = new BoundedInputStream(
+                Channels.newInputStream(channel),
+                (end - firstPosition) * BYTES_PER_POWER_SAMPLE);
+        var demodulator = new AdsbDemodulator(stream, firstPosition);
+        demodulator.setRecentAddresses(null);
+        demodulator.skip(warmUpSize);
+        return demodulator;
+    }
+
+    private record Chunk(long start, List<RawMessage> messages, Map<RawMessage, Integer> indices) {
+        Chunk(long start, List<RawMessage> messages) {
+            this(start, messages, indicesOf(messages));
+        }
+
+        private static Map<RawMessage, Integer> indicesOf(List<RawMessage> messages) {
+            var indices = new HashMap<RawMessage, Integer>();
+            for (var i = 0; i < messages.size(); i += 1) indices.put(messages.get(i), i);
+            return indices;
+        }
+
+        boolean contains(RawMessage message) {
+            return indices.containsKey(message);
+        }
+
+        List<RawMessage> messagesFrom(RawMessage message) {
+            return messages.subList(indices.get(message), messages.size());
+        }
+    }
+
+    private static final class BoundedInputStream extends FilterInputStream {
+        private long remaining;
+
+        BoundedInputStream(InputStream stream, long size) {
+            super(stream);
+            this.remaining = size;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining == 0) return -1;
+            var b = super.read();
+            if (b >= 0) remaining -= 1;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (remaining == 0) return -1;
+            var bytesRead = super.read(bytes, offset, (int) Math.min(length, remaining));
+            if (bytesRead > 0) remaining -= bytesRead;
+            return bytesRead;
+        }
+    }
+}
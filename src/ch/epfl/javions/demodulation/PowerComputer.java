@@ -4,13 +4,17 @@ import ch.epfl.javions.Preconditions;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Objects;
 
-public final class PowerComputer {
+public final class PowerComputer implements PowerSource {
     private static final int FILTER_SIZE = 8;
 
     private final int batchSize;
+    // Either the stream and its raw bytes (fused path) or the source and its samples are used.
+    private final InputStream stream;
+    private final byte[] bytes;
+    private final SampleSource samplesSource;
     private final short[] samples;
-    private final SamplesDecoder samplesDecoder;
 
     private final int[] window;
     private int iSum, qSum;
@@ -19,16 +23,88 @@ public final class PowerComputer {
     public PowerComputer(InputStream stream, int batchSize) {
         Preconditions.checkArgument(batchSize > 0 && batchSize % FILTER_SIZE == 0);
 
+        var bytes = new byte[batchSize * 2 * Short.BYTES];
+        // Only the last batch can be partial, and the powers of its last group of FILTER_SIZE
+        // samples are computed with the bytes left past its end: those of the previous batch, or
+        // encoded zero samples if there is none. This gives the same powers as the former
+        // decoding to a zero-initialized array of samples, which was reused the same way.
+        SamplesDecoder.fillWithZeroSamples(bytes);
+
+        this.batchSize = batchSize;
+        this.stream = Objects.requireNonNull(stream);
+        this.bytes = bytes;
+        this.samplesSource = null;
+        this.samples = null;
+        this.window = new int[FILTER_SIZE];
+    }
+
+    // samplesSource must accept batches of 2 * batchSize samples
+    public PowerComputer(SampleSource samplesSource, int batchSize) {
+        Preconditions.checkArgument(batchSize > 0 && batchSize % FILTER_SIZE == 0);
+
         this.batchSize = batchSize;
+        this.stream = null;
+        this.bytes = null;
+        this.samplesSource = Objects.requireNonNull(samplesSource);
         this.samples = new short[batchSize * 2];
-        this.samplesDecoder = new SamplesDecoder(stream, samples.length);
         this.window = new int[FILTER_SIZE];
     }
 
+    @Override
     public int readBatch(int[] batch) throws IOException {
         Preconditions.checkArgument(batch.length == batchSize);
+        return stream != null ? readBytesBatch(batch) : readSamplesBatch(batch);
+    }
+
+    // Computes the powers directly from the raw bytes, without decoding the samples first.
+    // The filter window and sums are kept in local variables during the loop.
+    private int readBytesBatch(int[] batch) throws IOException {
+        var bytesRead = stream.readNBytes(bytes, 0, bytes.length);
+        var samplesRead = bytesRead / Short.BYTES;
+
+        int w0 = window[0], w1 = window[1], w2 = window[2], w3 = window[3];
+        int w4 = window[4], w5 = window[5], w6 = window[6], w7 = window[7];
+        int i = iSum, q = qSum;
+
+        var powerI = 0;
+        for (var byteI = 0; byteI < samplesRead * Short.BYTES; byteI += FILTER_SIZE * Short.BYTES) {
+            var s0 = SamplesDecoder.sampleAt(bytes, byteI);
+            var s1 = SamplesDecoder.sampleAt(bytes, byteI + 2);
+            i += s0 - w0;
+            q += s1 - w1;
+            batch[powerI++] = power(i, q);
+
+            var s2 = SamplesDecoder.sampleAt(bytes, byteI + 4);
+            var s3 = SamplesDecoder.sampleAt(bytes, byteI + 6);
+            i -= s2 - w2;
+            q -= s3 - w3;
+            batch[powerI++] = power(i, q);
+
+            var s4 = SamplesDecoder.sampleAt(bytes, byteI + 8);
+            var s5 = SamplesDecoder.sampleAt(bytes, byteI + 10);
+            i += s4 - w4;
+            q += s5 - w5;
+            batch[powerI++] = power(i, q);
+
+            var s6 = SamplesDecoder.sampleAt(bytes, byteI + 12);
+            var s7 = SamplesDecoder.sampleAt(bytes, byteI + 14);
+            i -= s6 - w6;
+            q -= s7 - w7;
+            batch[powerI++] = power(i, q);
+
+            w0 = s0; w1 = s1; w2 = s2; w3 = s3;
+            w4 = s4; w5 = s5; w6 = s6; w7 = s7;
+        }
+
+        window[0] = w0; window[1] = w1; window[2] = w2; window[3] = w3;
+        window[4] = w4; window[5] = w5; window[6] = w6; window[7] = w7;
+        iSum = i;
+        qSum = q;
+        return powerI;
+    }
 
-        var samplesRead = samplesDecoder.readBatch(samples);
+    private int readSamplesBatch(int[] batch) throws IOException {
+        var samplesRead = samplesSource.readBatch(samples);
 
         var powerI = 0;
         var sampleI = 0;
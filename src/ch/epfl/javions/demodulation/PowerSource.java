@@ -0,0 +1,10 @@
+package ch.epfl.javions.demodulation;
+
+import java.io.IOException;
+
+public interface PowerSource {
+    // Fills the given batch with power samples, and returns the number of samples read, which is
+    // smaller than the size of the batch only when the end of the samples is reached.
+    // The batches given by the demodulator are of PowerWindow.BATCH_SIZE samples.
+    int readBatch(int[] batch) throws IOException;
+}
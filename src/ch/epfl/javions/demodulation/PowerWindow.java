@@ -4,33 +4,50 @@ import ch.epfl.javions.Preconditions;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Arrays;
 import java.util.Objects;
 
 public final class PowerWindow {
-    private static final int BATCH_SIZE = 1 << 16;
+    static final int BATCH_SIZE = 1 << 16;
+
+    // The noise floor of a batch is the median of the mean powers of its blocks, most of which
+    // contain no message, averaged over the previous batches with this weight.
+    private static final int NOISE_BLOCK_SIZE = 1 << 10;
+    private static final double NOISE_FLOOR_WEIGHT = 0.25;
 
     private final int windowSize;
-    private final PowerComputer powerComputer;
+    private final PowerSource powerSource;
     private int[] batch0, batch1;
     private long position;
     private int headIndex; // Invariant: 0 <= headIndex < BATCH_SIZE
     private int available;
+    // Noise floor estimated from the samples up to the end of each batch.
+    private double noiseFloor0, noiseFloor1;
+    private final long[] blockMeans = new long[BATCH_SIZE / NOISE_BLOCK_SIZE];
 
     public PowerWindow(InputStream stream, int windowSize) throws IOException {
+        this(new PowerComputer(stream, BATCH_SIZE), windowSize);
+    }
+
+    public PowerWindow(SampleSource samplesSource, int windowSize) throws IOException {
+        this(new PowerComputer(samplesSource, BATCH_SIZE), windowSize);
+    }
+
+    public PowerWindow(PowerSource powerSource, int windowSize) throws IOException {
         Preconditions.checkArgument(0 < windowSize && windowSize <= BATCH_SIZE);
 
-        var powerComputer = new PowerComputer(stream, BATCH_SIZE);
         var batchEven = new int[BATCH_SIZE];
-        var initiallyAvailable = powerComputer.readBatch(batchEven);
+        var initiallyAvailable = powerSource.readBatch(batchEven);
         var batchOdd = new int[BATCH_SIZE];
 
         this.windowSize = windowSize;
-        this.powerComputer = powerComputer;
+        this.powerSource = Objects.requireNonNull(powerSource);
         this.batch0 = batchEven;
         this.batch1 = batchOdd;
         this.position = 0;
         this.headIndex = 0;
         this.available = initiallyAvailable;
+        this.noiseFloor0 = updatedNoiseFloor(0, batchEven, initiallyAvailable);
     }
 
     public int size() {
@@ -50,27 +67,85 @@ public final class PowerWindow {
         return j < BATCH_SIZE ? batch0[j] : batch1[j - BATCH_SIZE];
     }
 
+    // Returns an estimate of the power of the samples without signal around the head, or 0 if
+    // there are too few samples to estimate it.
+    public double noiseFloor() {
+        return noiseFloor0;
+    }
+
+    private double updatedNoiseFloor(double noiseFloor, int[] batch, int size) {
+        var blocksCount = size / NOISE_BLOCK_SIZE;
+        if (blocksCount == 0) return noiseFloor;
+
+        for (var block = 0; block < blocksCount; block += 1) {
+            var sum = 0L;
+            for (var i = block * NOISE_BLOCK_SIZE; i < (block + 1) * NOISE_BLOCK_SIZE; i += 1)
+                sum += batch[i];
+            blockMeans[block] = sum / NOISE_BLOCK_SIZE;
+        }
+        Arrays.sort(blockMeans, 0, blocksCount);
+        var batchNoiseFloor = (double) blockMeans[blocksCount / 2];
+        return noiseFloor == 0
+                ? batchNoiseFloor
+                : noiseFloor + NOISE_FLOOR_WEIGHT * (batchNoiseFloor - noiseFloor);
+    }
+
+    // The head batch holds the contiguousAvailable() samples starting at the head of the window,
+    // from index headIndex() on. Both are meant for bulk scans over the samples.
+    int[] headBatch() {
+        return batch0;
+    }
+
+    int headIndex() {
+        return headIndex;
+    }
+
+    int contiguousAvailable() {
+        return Math.min(available, BATCH_SIZE - headIndex);
+    }
+
     public void advance() throws IOException {
         position += 1;
         headIndex += 1;
         available -= 1;
+        updateBatches();
+    }
+
+    public void advanceBy(int offset) throws IOException {
+        Preconditions.checkArgument(offset >= 0);
+
+        // Jump from one batch boundary to the next, instead of advancing one sample at a time.
+        while (offset > 0) {
+            var boundaryIndex = headIndex < loadIndex() ? loadIndex() : BATCH_SIZE;
+            var step = Math.min(offset, boundaryIndex - headIndex);
+            position += step;
+            headIndex += step;
+            available -= step;
+            offset -= step;
+            updateBatches();
+        }
+    }
 
-        if (headIndex + windowSize - 1 == BATCH_SIZE) {
+    // Index of the head at which the window starts to overlap with the second batch.
+    private int loadIndex() {
+        return BATCH_SIZE - windowSize + 1;
+    }
+
+    private void updateBatches() throws IOException {
+        if (headIndex == loadIndex()) {
             // Window overlaps with second batch, load it.
-            var newlyAvailable = powerComputer.readBatch(batch1);
+            var newlyAvailable = powerSource.readBatch(batch1);
             available += newlyAvailable;
-        } else if (headIndex == BATCH_SIZE) {
+            noiseFloor1 = updatedNoiseFloor(noiseFloor0, batch1, newlyAvailable);
+        }
+        if (headIndex == BATCH_SIZE) {
             // Window doesn't overlap with first batch anymore, swap batches
             var b0 = batch0;
             batch0 = batch1;
             batch1 = b0;
+            noiseFloor0 = noiseFloor1;
 
             headIndex = 0;
         }
     }
-
-    public void advanceBy(int offset) throws IOException {
-        Preconditions.checkArgument(offset >= 0);
-        for (var i = 0; i < offset; i += 1) advance();
-    }
 }
@@ -0,0 +1,260 @@
+package ch.epfl.javions.demodulation;
+
+import ch.epfl.javions.adsb.ErrorCorrector;
+import ch.epfl.javions.adsb.MutableRawMessage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A receive chain running its stages on separate threads: reading of the raw samples,
+ * computation of their power, and demodulation. The stages exchange batches through bounded
+ * queues of recycled buffers, so that a slow stage blocks the ones feeding it instead of
+ * making memory usage grow.
+ */
+public final class ReceiverPipeline {
+    private static final int POWER_BATCH_SIZE = PowerWindow.BATCH_SIZE;
+    private static final int BYTE_BATCH_SIZE = POWER_BATCH_SIZE * 2 * Short.BYTES;
+    private static final int BATCHES_COUNT = 16;
+    private static final int MESSAGES_CAPACITY = 1 << 10;
+
+    // Marks the end of the messages.
+    private static final MutableRawMessage END_OF_MESSAGES = new MutableRawMessage();
+
+    private record ByteBatch(byte[] bytes, int size) {}
+    private record PowerBatch(int[] powers, int size) {}
+
+    // Mark the end of the batches when a stage fails, being smaller than the full ones.
+    private static final ByteBatch END_OF_BYTES = new ByteBatch(new byte[0], 0);
+    private static final PowerBatch END_OF_POWERS = new PowerBatch(new int[0], 0);
+
+    private final InputStream samplesStream;
+    private final ErrorCorrector errorCorrector;
+    private final BlockingQueue<byte[]> freeByteBatches;
+    private final BlockingQueue<ByteBatch> byteBatches;
+    private final BlockingQueue<int[]> freePowerBatches;
+    private final BlockingQueue<PowerBatch> powerBatches;
+    private final BlockingQueue<MutableRawMessage> freeMessages;
+    private final BlockingQueue<MutableRawMessage> messages;
+
+    private final AtomicLong bytesRead;
+    private final AtomicLong powerSamplesComputed;
+    private final AtomicLong messagesDemodulated;
+
+    // The first failure of a stage, rethrown once the messages demodulated before it are read.
+    private volatile Throwable failure;
+    private boolean finished;
+
+    public ReceiverPipeline(InputStream samplesStream) {
+        this(samplesStream, null);
+    }
+
+    // The demodulator corrects the invalid messages with the given corrector, unless it is null.
+    public ReceiverPipeline(InputStream samplesStream, ErrorCorrector errorCorrector) {
+        this.samplesStream = Objects.requireNonNull(samplesStream);
+        this.errorCorrector = errorCorrector;
+        this.freeByteBatches = new ArrayBlockingQueue<>(BATCHES_COUNT);
+        this.byteBatches = new ArrayBlockingQueue<>(BATCHES_COUNT);
+        this.freePowerBatches = new ArrayBlockingQueue<>(BATCHES_COUNT);
+        this.powerBatches = new ArrayBlockingQueue<>(BATCHES_COUNT);
+        this.freeMessages = new ArrayBlockingQueue<>(MESSAGES_CAPACITY);
+        this.messages = new ArrayBlockingQueue<>(MESSAGES_CAPACITY + 1);
+        this.bytesRead = new AtomicLong();
+        this.powerSamplesComputed = new AtomicLong();
+        this.messagesDemodulated = new AtomicLong();
+
+        for (var i = 0; i < BATCHES_COUNT; i += 1) {
+            freeByteBatches.add(new byte[BYTE_BATCH_SIZE]);
+            freePowerBatches.add(new int[POWER_BATCH_SIZE]);
+        }
+        for (var i = 0; i < MESSAGES_CAPACITY; i += 1)
+            freeMessages.add(new MutableRawMessage());
+
+        startStage("reader", this::readSamples, byteBatches, END_OF_BYTES);
+        startStage("power computer", this::computePowers, powerBatches, END_OF_POWERS);
+        startStage("demodulator", this::demodulate, messages, END_OF_MESSAGES);
+    }
+
+    // Fills the given message with the next demodulated one and returns true, or returns false if
+    // there are no more, blocking if necessary.
+    public boolean nextMessage(MutableRawMessage message) throws IOException {
+        if (finished) return false;
+
+        var nextMessage = take(messages);
+        if (nextMessage != END_OF_MESSAGES) {
+            message.set(nextMessage);
+            freeMessages.add(nextMessage);
+            return true;
+        }
+
+        finished = true;
+        switch (failure) {
+            case null -> { return false; }
+            case IOException e -> throw e;
+            case RuntimeException e -> throw e;
+            case Error e -> throw e;
+            default -> throw new UncheckedIOException(new IOException(failure));
+        }
+    }
+
+    public long bytesRead() {
+        return bytesRead.get();
+    }
+
+    public long powerSamplesComputed() {
+        return powerSamplesComputed.get();
+    }
+
+    public long messagesDemodulated() {
+        return messagesDemodulated.get();
+    }
+
+    private interface Stage {
+        void run() throws IOException;
+    }
+
+    // Runs the given stage on its own thread. If it fails, the failure is recorded and the given
+    // end marker is sent to the next stage, for the following stages to terminate and nextMessage
+    // to rethrow it, since a stage only sends its own end marker when it finishes normally.
+    private <E> void startStage(String name, Stage stage, BlockingQueue<E> output, E endMarker) {
+        var thread = new Thread(() -> {
+            try {
+                stage.run();
+            } catch (Throwable e) {
+                fail(e);
+                putUninterruptibly(output, endMarker);
+            }
+        }, "Javions " + name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Stage 1: raw bytes ingestion. A batch smaller than BYTE_BATCH_SIZE is the last one, and
+    // a read failure ends the samples, to let the other stages terminate.
+    private void readSamples() throws IOException {
+        var size = BYTE_BATCH_SIZE;
+        while (size == BYTE_BATCH_SIZE) {
+            var bytes = take(freeByteBatches);
+            try {
+                size = samplesStream.readNBytes(bytes, 0, bytes.length);
+            } catch (IOException e) {
+                fail(e);
+                size = 0;
+            }
+            byteBatches.add(new ByteBatch(bytes, size));
+            bytesRead.addAndGet(size);
+        }
+    }
+
+    // Stage 2: power computation. A batch smaller than POWER_BATCH_SIZE is the last one.
+    private void computePowers() throws IOException {
+        var powerComputer = new PowerComputer(new ByteBatchesStream(), POWER_BATCH_SIZE);
+        var size = POWER_BATCH_SIZE;
+        while (size == POWER_BATCH_SIZE) {
+            var powers = take(freePowerBatches);
+            size = powerComputer.readBatch(powers);
+            powerBatches.add(new PowerBatch(powers, size));
+            powerSamplesComputed.addAndGet(size);
+        }
+    }
+
+    // Stage 3: demodulation.
+    private void demodulate() throws IOException {
+        var window = new PowerWindow(new PowerBatchesReader(), AdsbDemodulator.LONG_MESSAGE_WIDTH);
+        var demodulator = new AdsbDemodulator(window, 0);
+        demodulator.setErrorCorrector(errorCorrector);
+        while (true) {
+            var message = take(freeMessages);
+            if (!demodulator.nextMessage(message)) break;
+            messages.add(message);
+            messagesDemodulated.incrementAndGet();
+        }
+        messages.add(END_OF_MESSAGES);
+    }
+
+    private void fail(Throwable e) {
+        synchronized (this) {
+            if (failure == null) failure = e;
+        }
+    }
+
+    // The queue may be full if the stage failed before taking a free batch, the next stage then
+    // making room by consuming it.
+    private static <E> void putUninterruptibly(BlockingQueue<E> queue, E element) {
+        var interrupted = false;
+        while (true) {
+            try {
+                queue.put(element);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    private static <E> E take(BlockingQueue<E> queue) throws InterruptedIOException {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException();
+        }
+    }
+
+    // The stream of bytes of the batches produced by stage 1, which recycles them once read.
+    private final class ByteBatchesStream extends InputStream {
+        private ByteBatch batch = null;
+        private int offset = 0;
+
+        @Override
+        public int read() throws IOException {
+            return nextBytesAvailable() ? Byte.toUnsignedInt(batch.bytes()[offset++]) : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            Objects.checkFromIndexSize(offset, length, bytes.length);
+            if (length == 0) return 0;
+            if (!nextBytesAvailable()) return -1;
+
+            var count = Math.min(length, batch.size() - this.offset);
+            System.arraycopy(batch.bytes(), this.offset, bytes, offset, count);
+            this.offset += count;
+            return count;
+        }
+
+        private boolean nextBytesAvailable() throws IOException {
+            while (batch == null || offset == batch.size()) {
+                if (batch != null) {
+                    if (batch.size() < BYTE_BATCH_SIZE) return false;
+                    freeByteBatches.add(batch.bytes());
+                }
+                batch = take(byteBatches);
+                offset = 0;
+            }
+            return true;
+        }
+    }
+
+    // The batches produced by stage 2, copied into the ones of the window and then recycled.
+    private final class PowerBatchesReader implements PowerSource {
+        private boolean ended = false;
+
+        @Override
+        public int readBatch(int[] batch) throws IOException {
+            if (ended) return 0;
+
+            var powerBatch = take(powerBatches);
+            System.arraycopy(powerBatch.powers(), 0, batch, 0, powerBatch.size());
+            if (powerBatch.size() < POWER_BATCH_SIZE) ended = true;
+            else freePowerBatches.add(powerBatch.powers());
+            return powerBatch.size();
+        }
+    }
+}
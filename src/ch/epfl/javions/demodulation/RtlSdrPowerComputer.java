@@ -0,0 +1,52 @@
+package ch.epfl.javions.demodulation;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.Objects;
+
+/**
+ * A computer of the power of the samples of an RTL-SDR, made of an unsigned 8-bit I component
+ * followed by an unsigned 8-bit Q component, both centered on 127.5.
+ * <p>
+ * Since each sample is made of two bytes, the power of every possible sample is computed once and
+ * stored in a table indexed by the two bytes of the sample. The power is scaled by 4 to be an
+ * integer. Its samples have the {@link SampleTiming#RTL_SDR} timing when sampled at 2.4 MHz.
+ * Contrary to {@link PowerComputer}, it accepts batches of any size.
+ */
+public final class RtlSdrPowerComputer implements PowerSource {
+    private static final int[] POWERS = powers();
+    private static final VarHandle SHORT_BE =
+            MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.BIG_ENDIAN);
+
+    private final InputStream stream;
+    private byte[] bytes;
+
+    public RtlSdrPowerComputer(InputStream stream) {
+        this.stream = Objects.requireNonNull(stream);
+        this.bytes = new byte[0];
+    }
+
+    private static int[] powers() {
+        var powers = new int[1 << (2 * Byte.SIZE)];
+        for (var i = 0; i < powers.length; i += 1) {
+            var iComponent = 2 * (i >>> Byte.SIZE) - 255;
+            var qComponent = 2 * (i & 0xFF) - 255;
+            powers[i] = iComponent * iComponent + qComponent * qComponent;
+        }
+        return powers;
+    }
+
+    @Override
+    public int readBatch(int[] batch) throws IOException {
+        if (bytes.length != batch.length * 2) bytes = new byte[batch.length * 2];
+
+        var samplesRead = stream.readNBytes(bytes, 0, bytes.length) / 2;
+        for (var i = 0; i < samplesRead; i += 1)
+            batch[i] = POWERS[Short.toUnsignedInt((short) SHORT_BE.get(bytes, 2 * i))];
+
+        return samplesRead;
+    }
+}
@@ -0,0 +1,9 @@
+package ch.epfl.javions.demodulation;
+
+import java.io.IOException;
+
+public interface SampleSource {
+    // Fills the given batch with signed 12-bit samples, and returns the number of samples read,
+    // which is smaller than the size of the batch only when the end of the samples is reached.
+    int readBatch(short[] batch) throws IOException;
+}
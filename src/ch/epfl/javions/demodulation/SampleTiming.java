@@ -0,0 +1,31 @@
+package ch.epfl.javions.demodulation;
+
+import ch.epfl.javions.Preconditions;
+
+/**
+ * The rate of the power samples given to the demodulator, and the number of phases, i.e. evenly
+ * spaced offsets within a sample, at which it looks for the pulses of each message.
+ * <p>
+ * At 10 MHz a pulse (half a microsecond) spans exactly 5 samples, and a single phase is enough.
+ * At lower rates, e.g. the 2.4 MHz of an RTL-SDR, a pulse spans a fractional number of samples,
+ * so the pulses of a message rarely start on a sample, and the power at their start is
+ * interpolated between the two closest samples, at the phase matching the preamble best.
+ */
+public record SampleTiming(double samplesPerMicrosecond, int phases) {
+    public static final int MAX_PHASES = 16;
+
+    // Power samples computed by PowerComputer from the 20 MHz samples of the AirSpy.
+    public static final SampleTiming AIRSPY = new SampleTiming(10, 1);
+    // Power samples of an RTL-SDR sampling at 2.4 MHz.
+    public static final SampleTiming RTL_SDR = new SampleTiming(2.4, 5);
+
+    public SampleTiming {
+        // At least one sample per pulse, and at most one message per window.
+        Preconditions.checkArgument(2 <= samplesPerMicrosecond && samplesPerMicrosecond <= 100);
+        Preconditions.checkArgument(1 <= phases && phases <= MAX_PHASES);
+    }
+
+    public double nanosecondsPerSample() {
+        return 1e3 / samplesPerMicrosecond;
+    }
+}
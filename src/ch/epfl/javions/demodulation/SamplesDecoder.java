@@ -4,10 +4,15 @@ import ch.epfl.javions.Preconditions;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
 import java.util.Objects;
 
-public final class SamplesDecoder {
+public final class SamplesDecoder implements SampleSource {
     private static final int BIAS = 1 << 11;
+    private static final VarHandle SHORT_LE =
+            MethodHandles.byteArrayViewVarHandle(short[].class, ByteOrder.LITTLE_ENDIAN);
 
     private final int batchSize;
     private final byte[] bytes;
@@ -21,19 +26,29 @@ public final class SamplesDecoder {
         this.stream = Objects.requireNonNull(stream);
     }
 
+    @Override
     public int readBatch(short[] batch) throws IOException {
         Preconditions.checkArgument(batch.length == batchSize);
 
         var bytesRead = stream.readNBytes(bytes, 0, bytes.length);
         var samplesRead = bytesRead / Short.BYTES;
 
-        var byteI = 0;
-        for (var sampleI = 0; sampleI < samplesRead; sampleI += 1) {
-            var lsb = Byte.toUnsignedInt(bytes[byteI++]);
-            var msb = Byte.toUnsignedInt(bytes[byteI++]);
-            batch[sampleI] = (short) ((msb << Byte.SIZE | lsb) - BIAS);
-        }
+        for (var sampleI = 0; sampleI < samplesRead; sampleI += 1)
+            batch[sampleI] = sampleAt(bytes, sampleI * Short.BYTES);
 
         return samplesRead;
     }
+
+    // Returns the sample stored (little-endian and biased) at the given index of the bytes. Bytes
+    // which aren't a 12-bit sample give a value wrapped to a short, as in the batches.
+    static short sampleAt(byte[] bytes, int index) {
+        return (short) ((short) SHORT_LE.get(bytes, index) - BIAS);
+    }
+
+    static void fillWithZeroSamples(byte[] bytes) {
+        for (var i = 0; i + 1 < bytes.length; i += Short.BYTES) {
+            bytes[i] = (byte) BIAS;
+            bytes[i + 1] = (byte) (BIAS >> Byte.SIZE);
+        }
+    }
 }
@@ -5,7 +5,6 @@ import ch.epfl.javions.Preconditions;
 import ch.epfl.javions.Units;
 import ch.epfl.javions.Units.Angle;
 import ch.epfl.javions.WebMercator;
-import ch.epfl.javions.adsb.CallSign;
 import ch.epfl.javions.aircraft.AircraftDescription;
 import ch.epfl.javions.aircraft.AircraftTypeDesignator;
 import ch.epfl.javions.aircraft.WakeTurbulenceCategory;
@@ -95,12 +94,16 @@ public final class AircraftController {
         var aircraftPath = new SVGPath();
         aircraftPath.getStyleClass().add("aircraft");
 
-        var fixedData = aircraftState.aircraftData();
-        var typeDesignator = fixedData != null ? fixedData.typeDesignator() : EMPTY_TYPE_DESIGNATOR;
-        var description = fixedData != null ? fixedData.description() : EMPTY_DESCRIPTION;
-        var wtc = fixedData != null ? fixedData.wakeTurbulenceCategory() : WakeTurbulenceCategory.UNKNOWN;
-        var icon = aircraftState.categoryProperty()
-                .map(c -> AircraftIcon.iconFor(typeDesignator, description, c.intValue(), wtc));
+        // The data of the aircraft may be found in the database after its icon was created.
+        var icon = Bindings.createObjectBinding(() -> {
+                    var fixedData = aircraftState.aircraftData();
+                    var typeDesignator = fixedData != null ? fixedData.typeDesignator() : EMPTY_TYPE_DESIGNATOR;
+                    var description = fixedData != null ? fixedData.description() : EMPTY_DESCRIPTION;
+                    var wtc = fixedData != null ? fixedData.wakeTurbulenceCategory() : WakeTurbulenceCategory.UNKNOWN;
+                    return AircraftIcon.iconFor(typeDesignator, description, aircraftState.getCategory(), wtc);
+                },
+                aircraftState.categoryProperty(),
+                aircraftState.aircraftDataProperty());
 
         aircraftPath.contentProperty().bind(icon.map(AircraftIcon::svgPath));
         aircraftPath.fillProperty().bind(aircraftState.altitudeProperty()
@@ -119,11 +122,15 @@ public final class AircraftController {
     }
 
     private Node label(ObservableAircraftState aircraftState) {
-        var name = aircraftState.aircraftData() != null
-                ? aircraftState.aircraftData().registration().string()
-                : Bindings.when(aircraftState.callSignProperty().isNotNull())
-                .then(Bindings.convert(aircraftState.callSignProperty().map(CallSign::string)))
-                .otherwise(aircraftState.address().string());
+        var name = Bindings.createStringBinding(() -> {
+                    if (aircraftState.aircraftData() != null)
+                        return aircraftState.aircraftData().registration().string();
+                    return aircraftState.getCallSign() != null
+                            ? aircraftState.getCallSign().string()
+                            : aircraftState.address().string();
+                },
+                aircraftState.aircraftDataProperty(),
+                aircraftState.callSignProperty());
 
         var velocity = optionalNumericString(aircraftState.velocityProperty(),
                 Units.Speed.KILOMETER_PER_HOUR,
@@ -3,32 +3,34 @@ package ch.epfl.javions.gui;
 import ch.epfl.javions.adsb.AircraftStateAccumulator;
 import ch.epfl.javions.adsb.Message;
 import ch.epfl.javions.aircraft.AircraftDatabase;
+import ch.epfl.javions.aircraft.AsyncAircraftDatabase;
 import ch.epfl.javions.aircraft.IcaoAddress;
+import ch.epfl.javions.aircraft.IcaoAddressMap;
+import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableSet;
 
-import java.io.IOException;
 import java.time.Duration;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Objects;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionException;
 
 public final class AircraftStateManager {
     private static final long MAX_NO_MESSAGE_NS =
             Duration.ofMinutes(1).toNanos();
 
-    private final AircraftDatabase aircraftDatabase;
+    private final AsyncAircraftDatabase aircraftDatabase;
     private final ObservableSet<ObservableAircraftState> states;
     private final ObservableSet<ObservableAircraftState> unmodifiableStates;
-    private final Map<IcaoAddress, AircraftStateAccumulator<ObservableAircraftState>> accumulators;
+    private final IcaoAddressMap<AircraftStateAccumulator<ObservableAircraftState>> accumulators;
     private long lastMessageTimeStampNs;
 
     public AircraftStateManager(AircraftDatabase aircraftDatabase) {
         var states = FXCollections.<ObservableAircraftState>observableSet();
-        this.aircraftDatabase = Objects.requireNonNull(aircraftDatabase);
+        this.aircraftDatabase = new AsyncAircraftDatabase(aircraftDatabase);
         this.states = states;
         this.unmodifiableStates = FXCollections.unmodifiableObservableSet(states);
-        this.accumulators = new HashMap<>();
+        this.accumulators = new IcaoAddressMap<>();
         this.lastMessageTimeStampNs = 0L;
     }
 
@@ -36,32 +38,60 @@ public final class AircraftStateManager {
         return unmodifiableStates;
     }
 
-    public void updateWithMessage(Message message) throws IOException {
-        var address = message.icaoAddress();
+    public void updateWithMessage(Message message) {
+        updateWithMessages(List.of(message));
+    }
+
+    // Updates the states with the given messages, the data of all the new aircraft being looked up
+    // together in the database.
+    public void updateWithMessages(List<Message> messages) {
+        var newStates = new ArrayList<ObservableAircraftState>();
+        for (var message : messages) {
+            var address = message.icaoAddress();
+            if (accumulators.get(address) != null) continue;
 
-        var accumulator = accumulators.get(address);
-        if (accumulator == null) {
-            var state = new ObservableAircraftState(address, aircraftDatabase.get(address));
-            accumulator = new AircraftStateAccumulator<>(state);
-            accumulators.put(address, accumulator);
+            var state = new ObservableAircraftState(address, null);
+            accumulators.put(address, new AircraftStateAccumulator<>(state));
+            newStates.add(state);
         }
+        if (!newStates.isEmpty()) lookUpAircraftData(newStates);
+
+        for (var message : messages) {
+            var accumulator = accumulators.get(message.icaoAddress());
+            accumulator.update(message);
+            var updatedState = accumulator.stateSetter();
+            if (updatedState.getPosition() != null) states.add(updatedState);
+            lastMessageTimeStampNs = message.timeStampNs();
+        }
+    }
 
-        accumulator.update(message);
-        var updatedState = accumulator.stateSetter();
-        if (updatedState.getPosition() != null) states.add(updatedState);
-        lastMessageTimeStampNs = message.timeStampNs();
+    // Sets the data of the given aircraft, at once if it is cached, otherwise once the database
+    // has been read, on the JavaFX thread. A failed lookup is rethrown on that thread.
+    private void lookUpAircraftData(List<ObservableAircraftState> newStates) {
+        var addresses = new ArrayList<IcaoAddress>(newStates.size());
+        for (var state : newStates) addresses.add(state.address());
+        var lookups = aircraftDatabase.getAll(addresses);
+
+        for (var state : newStates) {
+            var lookup = lookups.get(state.address());
+            if (lookup.isDone() && !lookup.isCompletedExceptionally()) {
+                state.setAircraftData(lookup.join());
+                continue;
+            }
+            lookup.whenComplete((data, e) -> Platform.runLater(() -> {
+                if (e != null) throw e instanceof CompletionException c ? c : new CompletionException(e);
+                state.setAircraftData(data);
+            }));
+        }
     }
 
     // Remove aircraft for which we didn't get a message recently
     public void purge() {
-        var accumulatorsIt = accumulators.values().iterator();
-        while (accumulatorsIt.hasNext()) {
-            var accumulator = accumulatorsIt.next();
+        accumulators.removeIf(accumulator -> {
             var state = accumulator.stateSetter();
-            if (lastMessageTimeStampNs - state.getLastMessageTimeStampNs() > MAX_NO_MESSAGE_NS) {
-                states.remove(state);
-                accumulatorsIt.remove();
-            }
-        }
+            var expired = lastMessageTimeStampNs - state.getLastMessageTimeStampNs() > MAX_NO_MESSAGE_NS;
+            if (expired) states.remove(state);
+            return expired;
+        });
     }
 }
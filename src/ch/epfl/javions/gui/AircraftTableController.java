@@ -48,13 +48,13 @@ public final class AircraftTableController {
                 textColumn("Indicatif", 70,
                         s -> s.callSignProperty().map(CallSign::string)),
                 textColumn("Immatriculation", 90,
-                        s -> new ReadOnlyObjectWrapper<>(s.aircraftData()).map(d -> d.registration().string())),
+                        s -> s.aircraftDataProperty().map(d -> d.registration().string())),
                 textColumn("Modèle", 230,
-                        s -> new ReadOnlyObjectWrapper<>(s.aircraftData()).map(AircraftData::model)),
+                        s -> s.aircraftDataProperty().map(AircraftData::model)),
                 textColumn("Type", 50,
-                        s -> new ReadOnlyObjectWrapper<>(s.aircraftData()).map(d -> d.typeDesignator().string())),
+                        s -> s.aircraftDataProperty().map(d -> d.typeDesignator().string())),
                 textColumn("Description", 70,
-                        s -> new ReadOnlyObjectWrapper<>(s.aircraftData()).map(d -> d.description().string())),
+                        s -> s.aircraftDataProperty().map(d -> d.description().string())),
                 doubleColumn("Longitude (°)",
                         s -> s.positionProperty().map(GeoPos::longitude),
                         Units.Angle.DEGREE,
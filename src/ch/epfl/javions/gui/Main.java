@@ -2,9 +2,10 @@ package ch.epfl.javions.gui;
 
 import ch.epfl.javions.adsb.Message;
 import ch.epfl.javions.adsb.MessageParser;
+import ch.epfl.javions.adsb.MutableRawMessage;
 import ch.epfl.javions.adsb.RawMessage;
-import ch.epfl.javions.aircraft.AircraftDatabase;
-import ch.epfl.javions.demodulation.AdsbDemodulator;
+import ch.epfl.javions.aircraft.IndexedAircraftDatabase;
+import ch.epfl.javions.demodulation.ReceiverPipeline;
 import javafx.animation.AnimationTimer;
 import javafx.application.Application;
 import javafx.beans.binding.Bindings;
@@ -19,6 +20,7 @@ import javafx.stage.Stage;
 
 import java.io.*;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.Supplier;
@@ -47,7 +49,7 @@ public final class Main extends Application {
         var aircraftDbUrl = getClass().getResource(AIRCRAFT_DB_RESOURCE_NAME);
         assert aircraftDbUrl != null;
         var aircraftDbPath = Path.of(aircraftDbUrl.toURI());
-        var aircraftDb = new AircraftDatabase(aircraftDbPath.toString());
+        var aircraftDb = IndexedAircraftDatabase.load(aircraftDbPath.toString());
 
         var aircraftStateManager = new AircraftStateManager(aircraftDb);
         var tileManager = new TileManager(Path.of(OSM_TILE_CACHE_PATH), OSM_TILE_SERVER);
@@ -105,19 +107,13 @@ public final class Main extends Application {
 
             @Override
             public void handle(long nowNs) {
-                try {
-                    var messagesReceived = 0;
-                    while (!messageQueue.isEmpty()) {
-                        aircraftStateManager.updateWithMessage(messageQueue.remove());
-                        messagesReceived += 1;
-                    }
-                    messageCount.set(messageCount.get() + messagesReceived);
-                    if (nowNs - lastPurgeTimeNs > PURGE_INTERVAL_NS) {
-                        aircraftStateManager.purge();
-                        lastPurgeTimeNs = nowNs;
-                    }
-                } catch (IOException e) {
-                    throw new UncheckedIOException(e);
+                var messages = new ArrayList<Message>();
+                while (!messageQueue.isEmpty()) messages.add(messageQueue.remove());
+                aircraftStateManager.updateWithMessages(messages);
+                messageCount.set(messageCount.get() + messages.size());
+                if (nowNs - lastPurgeTimeNs > PURGE_INTERVAL_NS) {
+                    aircraftStateManager.purge();
+                    lastPurgeTimeNs = nowNs;
                 }
             }
         };
@@ -131,14 +127,15 @@ public final class Main extends Application {
 //                .redirectOutput(ProcessBuilder.Redirect.PIPE)
 //                .start();
 //
-//        AdsbDemodulator demodulator = new AdsbDemodulator(process.getInputStream());
+//        ReceiverPipeline receiver = new ReceiverPipeline(process.getInputStream());
 
-        var demodulator = new AdsbDemodulator(System.in);
+        // Reading, power computation and demodulation run on their own threads, parsing on this one.
+        var receiver = new ReceiverPipeline(System.in);
+        var rawMessage = new MutableRawMessage();
         return () -> {
             try {
                 while (true) {
-                    var rawMessage = demodulator.nextMessage();
-                    if (rawMessage == null) return null;
+                    if (!receiver.nextMessage(rawMessage)) return null;
                     var message = MessageParser.parse(rawMessage);
                     if (message != null) return message;
                 }
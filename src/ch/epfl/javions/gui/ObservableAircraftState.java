@@ -15,7 +15,7 @@ public final class ObservableAircraftState implements AircraftStateSetter {
     public record AirbornePos(GeoPos position, double altitude) {}
 
     private final IcaoAddress address;
-    private final AircraftData aircraftData;
+    private final ObjectProperty<AircraftData> aircraftDataProperty;
     private final LongProperty lastMessageTimeStampNsProperty;
     private final IntegerProperty categoryProperty;
     private final ObjectProperty<CallSign> callSignProperty;
@@ -31,7 +31,7 @@ public final class ObservableAircraftState implements AircraftStateSetter {
         var trajectory = FXCollections.<AirbornePos>observableArrayList();
 
         this.address = Objects.requireNonNull(address);
-        this.aircraftData = aircraftData;
+        this.aircraftDataProperty = new SimpleObjectProperty<>(aircraftData);
         this.lastMessageTimeStampNsProperty = new SimpleLongProperty();
         this.categoryProperty = new SimpleIntegerProperty();
         this.callSignProperty = new SimpleObjectProperty<>();
@@ -48,8 +48,17 @@ public final class ObservableAircraftState implements AircraftStateSetter {
         return address;
     }
 
+    // The data of the aircraft, null until it has been found in the database.
+    public ReadOnlyObjectProperty<AircraftData> aircraftDataProperty() {
+        return aircraftDataProperty;
+    }
+
     public AircraftData aircraftData() {
-        return aircraftData;
+        return aircraftDataProperty.get();
+    }
+
+    void setAircraftData(AircraftData aircraftData) {
+        aircraftDataProperty.set(aircraftData);
     }
 
     public ReadOnlyLongProperty lastMessageTimeStampNsProperty() {
@@ -0,0 +1,136 @@
+package ch.epfl.javions.benchmark;
+
+import ch.epfl.javions.aircraft.AircraftData;
+import ch.epfl.javions.aircraft.AircraftDatabase;
+import ch.epfl.javions.aircraft.AircraftDescription;
+import ch.epfl.javions.aircraft.AircraftRegistration;
+import ch.epfl.javions.aircraft.AircraftTypeDesignator;
+import ch.epfl.javions.aircraft.IcaoAddress;
+import ch.epfl.javions.aircraft.WakeTurbulenceCategory;
+import ch.epfl.javions.aircraft.ZipAircraftDatabase;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+import java.util.zip.ZipFile;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Throughput of lookups in the zip aircraft database, reopening the zip file and scanning the
+ * entry of the aircraft at each lookup (as was done before), or keeping it open and indexing its
+ * entries, from one or several threads.
+ * <p>
+ * Usage: {@code AircraftDatabaseBenchmark aircraft.zip [--json results.json]}.
+ */
+public final class AircraftDatabaseBenchmark {
+    // Fewer lookups for the former database, which is much slower.
+    private static final int FORMER_LOOKUPS_COUNT = 1 << 10;
+    private static final int LOOKUPS_COUNT = 1 << 18;
+    private static final int THREADS_COUNT = 4;
+
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASUREMENT_ITERATIONS = 10;
+
+    // The former database, reading the zip file at each lookup.
+    private record FormerZipAircraftDatabase(String fileName) implements AircraftDatabase {
+        private static final String SEPARATOR = Pattern.quote(",");
+
+        @Override
+        public AircraftData get(IcaoAddress address) throws IOException {
+            var addressString = address.string();
+            var entryName = addressString.substring(4) + ".csv";
+
+            try (var zipFile = new ZipFile(fileName);
+                 var entryStream = zipFile.getInputStream(zipFile.getEntry(entryName));
+                 var reader = new BufferedReader(new InputStreamReader(entryStream, UTF_8))) {
+                while (true) {
+                    var line = reader.readLine();
+                    if (line == null) return null;
+                    if (line.compareTo(addressString) < 0) continue;
+                    if (!line.startsWith(addressString)) return null;
+
+                    var columns = line.split(SEPARATOR, -1);
+                    return new AircraftData(
+                            new AircraftRegistration(columns[1]),
+                            new AircraftTypeDesignator(columns[2]),
+                            columns[3],
+                            new AircraftDescription(columns[4]),
+                            WakeTurbulenceCategory.of(columns[5]));
+                }
+            }
+        }
+    }
+
+    private AircraftDatabaseBenchmark() {}
+
+    public static void main(String[] args) throws Exception {
+        String zipFileName = null;
+        Path jsonFile = null;
+        for (var i = 0; i < args.length; i += 1) {
+            if (args[i].equals("--json")) jsonFile = Path.of(args[++i]);
+            else zipFileName = args[i];
+        }
+        if (zipFileName == null) {
+            System.err.println("Usage: AircraftDatabaseBenchmark <aircraft.zip> [--json <file>]");
+            System.exit(1);
+        }
+
+        var random = new Random(2023);
+        var addresses = new IcaoAddress[LOOKUPS_COUNT];
+        for (var i = 0; i < LOOKUPS_COUNT; i += 1)
+            addresses[i] = IcaoAddress.of(random.nextInt(1 << IcaoAddress.SIZE));
+
+        var formerDatabase = new FormerZipAircraftDatabase(zipFileName);
+        var benchmark = new Benchmark("aircraft-database", WARMUP_ITERATIONS, MEASUREMENT_ITERATIONS);
+        benchmark.run("Former ZipAircraftDatabase, 1 thread", "lookups/s",
+                () -> lookUp(formerDatabase, addresses, 0, FORMER_LOOKUPS_COUNT));
+        try (var database = new ZipAircraftDatabase(zipFileName);
+             var executor = Executors.newFixedThreadPool(THREADS_COUNT)) {
+            benchmark.run("ZipAircraftDatabase, 1 thread", "lookups/s",
+                    () -> lookUp(database, addresses, 0, LOOKUPS_COUNT));
+            benchmark.run("ZipAircraftDatabase, " + THREADS_COUNT + " threads", "lookups/s", () -> {
+                var slice = LOOKUPS_COUNT / THREADS_COUNT;
+                var futures = new ArrayList<Future<Long>>();
+                for (var t = 0; t < THREADS_COUNT; t += 1) {
+                    var start = t * slice;
+                    futures.add(executor.submit(() -> lookUp(database, addresses, start, start + slice)));
+                }
+                var lookups = 0L;
+                for (var future : futures) {
+                    try {
+                        lookups += future.get();
+                    } catch (Exception e) {
+                        throw new IOException(e);
+                    }
+                }
+                return lookups;
+            });
+        }
+
+        if (jsonFile != null) {
+            benchmark.writeJson(jsonFile);
+        } else {
+            var writer = new OutputStreamWriter(System.out, UTF_8);
+            benchmark.writeJson(writer);
+            writer.flush();
+        }
+    }
+
+    private static long lookUp(AircraftDatabase database, IcaoAddress[] addresses, int from, int to)
+            throws IOException {
+        var found = 0L;
+        for (var i = from; i < to; i += 1) {
+            if (database.get(addresses[i]) != null) found += 1;
+        }
+        Benchmark.consume(found);
+        return to - from;
+    }
+}
@@ -0,0 +1,117 @@
+package ch.epfl.javions.benchmark;
+
+import ch.epfl.javions.Preconditions;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A minimal throughput benchmark runner, writing its results as JSON.
+ */
+public final class Benchmark {
+    @FunctionalInterface
+    public interface Case {
+        // Runs the measured code once and returns the number of operations performed.
+        long run() throws IOException;
+    }
+
+    public record Result(String name, String unit, int iterations, double mean, double min, double max) {}
+
+    // Prevents the JIT from eliminating the computations of the benchmarked code.
+    private static volatile long sink;
+
+    private final String suite;
+    private final int warmupIterations;
+    private final int measurementIterations;
+    private final List<Result> results;
+
+    public Benchmark(String suite, int warmupIterations, int measurementIterations) {
+        Preconditions.checkArgument(warmupIterations >= 0 && measurementIterations > 0);
+
+        this.suite = Objects.requireNonNull(suite);
+        this.warmupIterations = warmupIterations;
+        this.measurementIterations = measurementIterations;
+        this.results = new ArrayList<>();
+    }
+
+    public static void consume(long value) {
+        sink ^= value;
+    }
+
+    public Result run(String name, String unit, Case benchmarkCase) throws IOException {
+        for (var i = 0; i < warmupIterations; i += 1) consume(benchmarkCase.run());
+
+        var mean = 0d;
+        var min = Double.POSITIVE_INFINITY;
+        var max = Double.NEGATIVE_INFINITY;
+        for (var i = 0; i < measurementIterations; i += 1) {
+            var startNs = System.nanoTime();
+            var operations = benchmarkCase.run();
+            var elapsedNs = System.nanoTime() - startNs;
+            consume(operations);
+
+            var throughput = operations / (elapsedNs * 1e-9);
+            mean += throughput / measurementIterations;
+            min = Math.min(min, throughput);
+            max = Math.max(max, throughput);
+        }
+
+        var result = new Result(name, unit, measurementIterations, mean, min, max);
+        results.add(result);
+        System.err.printf(Locale.ROOT, "%-50s %,16.0f %s%n", name, mean, unit);
+        return result;
+    }
+
+    public List<Result> results() {
+        return List.copyOf(results);
+    }
+
+    public void writeJson(Path file) throws IOException {
+        try (var writer = Files.newBufferedWriter(file, UTF_8)) {
+            writeJson(writer);
+        }
+    }
+
+    public void writeJson(Writer writer) throws IOException {
+        writer.write("{\n");
+        writer.write("  \"suite\": " + jsonString(suite) + ",\n");
+        writer.write("  \"timestamp\": " + jsonString(Instant.now().toString()) + ",\n");
+        writer.write("  \"javaVersion\": " + jsonString(System.getProperty("java.version")) + ",\n");
+        writer.write("  \"availableProcessors\": " + Runtime.getRuntime().availableProcessors() + ",\n");
+        writer.write("  \"results\": [");
+        for (var i = 0; i < results.size(); i += 1) {
+            var r = results.get(i);
+            writer.write(i == 0 ? "\n" : ",\n");
+            writer.write(String.format(Locale.ROOT,
+                    "    {\"name\": %s, \"unit\": %s, \"iterations\": %d, \"mean\": %.3f, \"min\": %.3f, \"max\": %.3f}",
+                    jsonString(r.name()), jsonString(r.unit()), r.iterations(), r.mean(), r.min(), r.max()));
+        }
+        writer.write("\n  ]\n}\n");
+    }
+
+    private static String jsonString(String s) {
+        var b = new StringBuilder(s.length() + 2).append('"');
+        for (var i = 0; i < s.length(); i += 1) {
+            var c = s.charAt(i);
+            switch (c) {
+                case '"' -> b.append("\\\"");
+                case '\\' -> b.append("\\\\");
+                case '\n' -> b.append("\\n");
+                default -> {
+                    if (c < 0x20) b.append(String.format("\\u%04x", (int) c));
+                    else b.append(c);
+                }
+            }
+        }
+        return b.append('"').toString();
+    }
+}
@@ -0,0 +1,109 @@
+package ch.epfl.javions.benchmark;
+
+import ch.epfl.javions.Crc24;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Throughput of the CRC of 14-byte messages, computed byte per byte (as it was before) or with
+ * the slicing-by-8 implementation of {@link Crc24}.
+ * <p>
+ * Usage: {@code Crc24Benchmark [--json results.json]}.
+ */
+public final class Crc24Benchmark {
+    private static final int MESSAGE_LENGTH = 14;
+    private static final int MESSAGES_COUNT = 1 << 12;
+    // Number of times the messages, which fit in the cache, are processed per iteration.
+    private static final int ROUNDS = 1 << 8;
+
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASUREMENT_ITERATIONS = 10;
+
+    private Crc24Benchmark() {}
+
+    public static void main(String[] args) throws IOException {
+        Path jsonFile = null;
+        for (var i = 0; i < args.length; i += 1) {
+            if (args[i].equals("--json")) jsonFile = Path.of(args[++i]);
+        }
+
+        var random = new Random(2023);
+        var messages = new byte[MESSAGES_COUNT][MESSAGE_LENGTH];
+        var highs = new long[MESSAGES_COUNT];
+        var lows = new long[MESSAGES_COUNT];
+        for (var i = 0; i < MESSAGES_COUNT; i += 1) {
+            random.nextBytes(messages[i]);
+            for (var j = 0; j < Long.BYTES; j += 1)
+                highs[i] = (highs[i] << Byte.SIZE) | Byte.toUnsignedInt(messages[i][j]);
+            for (var j = Long.BYTES; j < MESSAGE_LENGTH; j += 1)
+                lows[i] = (lows[i] << Byte.SIZE) | Byte.toUnsignedInt(messages[i][j]);
+        }
+
+        var crc24 = new Crc24(Crc24.GENERATOR);
+        var bytewise = new BytewiseCrc24(crc24);
+
+        var benchmark = new Benchmark("crc24", WARMUP_ITERATIONS, MEASUREMENT_ITERATIONS);
+        benchmark.run("CRC-24 byte per byte", "messages/s", () -> {
+            var crcs = 0L;
+            for (var r = 0; r < ROUNDS; r += 1) {
+                for (var message : messages) crcs += bytewise.crc(message);
+            }
+            Benchmark.consume(crcs);
+            return (long) ROUNDS * MESSAGES_COUNT;
+        });
+        benchmark.run("Crc24.crc(byte[])", "messages/s", () -> {
+            var crcs = 0L;
+            for (var r = 0; r < ROUNDS; r += 1) {
+                for (var message : messages) crcs += crc24.crc(message);
+            }
+            Benchmark.consume(crcs);
+            return (long) ROUNDS * MESSAGES_COUNT;
+        });
+        benchmark.run("Crc24.crc(long, long, int)", "messages/s", () -> {
+            var crcs = 0L;
+            for (var r = 0; r < ROUNDS; r += 1) {
+                for (var i = 0; i < MESSAGES_COUNT; i += 1)
+                    crcs += crc24.crc(highs[i], lows[i], MESSAGE_LENGTH - Long.BYTES);
+            }
+            Benchmark.consume(crcs);
+            return (long) ROUNDS * MESSAGES_COUNT;
+        });
+
+        if (jsonFile != null) {
+            benchmark.writeJson(jsonFile);
+        } else {
+            var writer = new OutputStreamWriter(System.out, UTF_8);
+            benchmark.writeJson(writer);
+            writer.flush();
+        }
+    }
+
+    // The former implementation of Crc24.crc, with one table lookup per byte and three more for
+    // the zero bytes appended to the message.
+    private static final class BytewiseCrc24 {
+        private final int[] table;
+
+        BytewiseCrc24(Crc24 crc24) {
+            this.table = new int[1 << Byte.SIZE];
+            for (var i = 0; i < table.length; i += 1) table[i] = crc24.crc(new byte[]{(byte) i});
+        }
+
+        int crc(byte[] bytes) {
+            var crc = 0;
+            for (var b : bytes) {
+                var topByte = (crc >>> 16) & 0xFF;
+                crc = ((crc << Byte.SIZE) | Byte.toUnsignedInt(b)) ^ table[topByte];
+            }
+            for (var i = 0; i < 3; i += 1) {
+                var topByte = (crc >>> 16) & 0xFF;
+                crc = (crc << Byte.SIZE) ^ table[topByte];
+            }
+            return crc & 0xFF_FFFF;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package ch.epfl.javions.benchmark;
+
+import ch.epfl.javions.demodulation.AdsbDemodulator;
+import ch.epfl.javions.demodulation.MappedSamplesDecoder;
+import ch.epfl.javions.demodulation.PackedSamplesDecoder;
+import ch.epfl.javions.demodulation.PowerComputer;
+import ch.epfl.javions.demodulation.PowerWindow;
+import ch.epfl.javions.demodulation.RtlSdrPowerComputer;
+import ch.epfl.javions.demodulation.SamplesDecoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Random;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Throughput of the stages of the demodulation pipeline.
+ * <p>
+ * Usage: {@code DemodulationBenchmark [--json results.json] [samples.bin ...]}, where the optional
+ * files are raw AirSpy captures used as fixtures in addition to a synthetic one.
+ */
+public final class DemodulationBenchmark {
+    private static final int BATCH_SIZE = 1 << 16;
+    private static final int WINDOW_SIZE = 1200;
+
+    private static final int SYNTHETIC_POWER_SAMPLES = 1 << 23;
+    private static final int SYNTHETIC_MESSAGES = 2_000;
+
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASUREMENT_ITERATIONS = 10;
+
+    private DemodulationBenchmark() {}
+
+    public static void main(String[] args) throws IOException {
+        Path jsonFile = null;
+        var fixtures = new LinkedHashMap<String, byte[]>();
+        var files = new LinkedHashMap<String, Path>();
+        fixtures.put("synthetic", SyntheticSamples.generate(SYNTHETIC_POWER_SAMPLES, SYNTHETIC_MESSAGES, 2023));
+        for (var i = 0; i < args.length; i += 1) {
+            if (args[i].equals("--json")) {
+                jsonFile = Path.of(args[++i]);
+            } else {
+                var file = Path.of(args[i]);
+                fixtures.put(file.getFileName().toString(), Files.readAllBytes(file));
+                files.put(file.getFileName().toString(), file);
+            }
+        }
+
+        var benchmark = new Benchmark("demodulation", WARMUP_ITERATIONS, MEASUREMENT_ITERATIONS);
+        for (var fixture : fixtures.entrySet()) {
+            var name = fixture.getKey();
+            var bytes = fixture.getValue();
+            benchmark.run("SamplesDecoder.readBatch[" + name + "]", "samples/s",
+                    () -> samplesDecoder(bytes));
+            var packedBytes = pack(bytes);
+            benchmark.run("PackedSamplesDecoder.readBatch[" + name + "]", "samples/s",
+                    () -> packedSamplesDecoder(packedBytes));
+            benchmark.run("PowerComputer.readBatch[" + name + "]", "samples/s",
+                    () -> powerComputer(bytes));
+            benchmark.run("PowerWindow.advance/get[" + name + "]", "samples/s",
+                    () -> powerWindow(bytes));
+            benchmark.run("AdsbDemodulator.nextMessage[" + name + "]", "samples/s",
+                    () -> {
+                        Benchmark.consume(demodulate(bytes));
+                        return bytes.length / Short.BYTES;
+                    });
+            benchmark.run("AdsbDemodulator.nextMessage[" + name + "]", "messages/s",
+                    () -> demodulate(bytes));
+        }
+        // The content of the RTL-SDR samples doesn't matter, only their number, that of a 2.4 MHz
+        // capture lasting as long as the synthetic one.
+        var rtlSdrBytes = new byte[SYNTHETIC_POWER_SAMPLES / 10 * 24 / 10 * 2];
+        new Random(2023).nextBytes(rtlSdrBytes);
+        benchmark.run("RtlSdrPowerComputer.readBatch[random]", "samples/s",
+                () -> rtlSdrPowerComputer(rtlSdrBytes));
+
+        for (var file : files.entrySet()) {
+            var name = file.getKey();
+            var path = file.getValue();
+            benchmark.run("MappedSamplesDecoder.readBatch[" + name + "]", "samples/s",
+                    () -> mappedSamplesDecoder(path));
+            benchmark.run("AdsbDemodulator.nextMessage(mapped)[" + name + "]", "samples/s",
+                    () -> {
+                        Benchmark.consume(demodulateMapped(path));
+                        return Files.size(path) / Short.BYTES;
+                    });
+        }
+
+        if (jsonFile != null) {
+            benchmark.writeJson(jsonFile);
+        } else {
+            var writer = new OutputStreamWriter(System.out, UTF_8);
+            benchmark.writeJson(writer);
+            writer.flush();
+        }
+    }
+
+    // All cases return the number of raw (12-bit) samples they processed, except demodulate and
+    // rtlSdrPowerComputer.
+
+    private static long samplesDecoder(byte[] bytes) throws IOException {
+        var decoder = new SamplesDecoder(new ByteArrayInputStream(bytes), BATCH_SIZE);
+        var batch = new short[BATCH_SIZE];
+        var samples = 0L;
+        for (int n; (n = decoder.readBatch(batch)) > 0; ) {
+            samples += n;
+            Benchmark.consume(batch[n - 1]);
+        }
+        return samples;
+    }
+
+    private static byte[] pack(byte[] bytes) throws IOException {
+        var packedStream = new ByteArrayOutputStream();
+        PackedSamplesDecoder.pack(new ByteArrayInputStream(bytes), packedStream);
+        return packedStream.toByteArray();
+    }
+
+    private static long packedSamplesDecoder(byte[] packedBytes) throws IOException {
+        var decoder = new PackedSamplesDecoder(new ByteArrayInputStream(packedBytes), BATCH_SIZE);
+        var batch = new short[BATCH_SIZE];
+        var samples = 0L;
+        for (int n; (n = decoder.readBatch(batch)) > 0; ) {
+            samples += n;
+            Benchmark.consume(batch[n - 1]);
+        }
+        return samples;
+    }
+
+    // Returns the number of I/Q samples processed.
+    private static long rtlSdrPowerComputer(byte[] bytes) throws IOException {
+        var computer = new RtlSdrPowerComputer(new ByteArrayInputStream(bytes));
+        var batch = new int[BATCH_SIZE];
+        var samples = 0L;
+        for (int n; (n = computer.readBatch(batch)) > 0; ) {
+            samples += n;
+            Benchmark.consume(batch[n - 1]);
+        }
+        return samples;
+    }
+
+    private static long mappedSamplesDecoder(Path file) throws IOException {
+        try (var decoder = new MappedSamplesDecoder(file)) {
+            var batch = new short[BATCH_SIZE];
+            var samples = 0L;
+            for (int n; (n = decoder.readBatch(batch)) > 0; ) {
+                samples += n;
+                Benchmark.consume(batch[n - 1]);
+            }
+            return samples;
+        }
+    }
+
+    private static long powerComputer(byte[] bytes) throws IOException {
+        var computer = new PowerComputer(new ByteArrayInputStream(bytes), BATCH_SIZE);
+        var batch = new int[BATCH_SIZE];
+        var samples = 0L;
+        for (int n; (n = computer.readBatch(batch)) > 0; ) {
+            samples += 2L * n;
+            Benchmark.consume(batch[n - 1]);
+        }
+        return samples;
+    }
+
+    private static long powerWindow(byte[] bytes) throws IOException {
+        var window = new PowerWindow(new ByteArrayInputStream(bytes), WINDOW_SIZE);
+        var sum = 0L;
+        for (; window.isFull(); window.advance())
+            sum += window.get(0) + window.get(WINDOW_SIZE / 2) + window.get(WINDOW_SIZE - 1);
+        Benchmark.consume(sum);
+        return 2 * (window.position() + WINDOW_SIZE - 1);
+    }
+
+    private static long demodulate(byte[] bytes) throws IOException {
+        return demodulate(new AdsbDemodulator(new ByteArrayInputStream(bytes)));
+    }
+
+    private static long demodulateMapped(Path file) throws IOException {
+        try (var decoder = new MappedSamplesDecoder(file)) {
+            return demodulate(new AdsbDemodulator(decoder));
+        }
+    }
+
+    private static long demodulate(AdsbDemodulator demodulator) throws IOException {
+        var messages = 0L;
+        for (var m = demodulator.nextMessage(); m != null; m = demodulator.nextMessage()) {
+            messages += 1;
+            Benchmark.consume(m.timeStampNs());
+        }
+        return messages;
+    }
+}
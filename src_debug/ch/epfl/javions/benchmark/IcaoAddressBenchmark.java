@@ -0,0 +1,112 @@
+package ch.epfl.javions.benchmark;
+
+import ch.epfl.javions.ByteString;
+import ch.epfl.javions.Preconditions;
+import ch.epfl.javions.adsb.RawMessage;
+import ch.epfl.javions.aircraft.IcaoAddress;
+import ch.epfl.javions.aircraft.IcaoAddressMap;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Cost of getting the ICAO address of a message and looking up the state of its aircraft, with
+ * addresses stored as hexadecimal strings (as they were before) or as ints.
+ * <p>
+ * Usage: {@code IcaoAddressBenchmark [--json results.json]}.
+ */
+public final class IcaoAddressBenchmark {
+    private static final int MESSAGES_COUNT = 1 << 20;
+    // Roughly the number of aircraft visible from a receiver at a given time.
+    private static final int AIRCRAFT_COUNT = 400;
+
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASUREMENT_ITERATIONS = 10;
+
+    // The former, String-based, ICAO address.
+    private record StringIcaoAddress(String string) {
+        private static final Pattern PATTERN = Pattern.compile("[0-9A-F]{6}");
+        private static final HexFormat HEX_FORMAT = HexFormat.of().withUpperCase();
+
+        StringIcaoAddress {
+            Preconditions.checkArgument(PATTERN.matcher(string).matches());
+        }
+
+        static StringIcaoAddress of(RawMessage message) {
+            var address = message.bytes().bytesInRange(1, 4);
+            return new StringIcaoAddress(HEX_FORMAT.toHexDigits(address, 6));
+        }
+    }
+
+    private IcaoAddressBenchmark() {}
+
+    public static void main(String[] args) throws IOException {
+        Path jsonFile = null;
+        for (var i = 0; i < args.length; i += 1) {
+            if (args[i].equals("--json")) jsonFile = Path.of(args[++i]);
+        }
+
+        var random = new Random(2023);
+        var addresses = new int[AIRCRAFT_COUNT];
+        for (var i = 0; i < AIRCRAFT_COUNT; i += 1) addresses[i] = random.nextInt(1 << IcaoAddress.SIZE);
+
+        var messages = new RawMessage[MESSAGES_COUNT];
+        for (var i = 0; i < MESSAGES_COUNT; i += 1) {
+            var address = addresses[random.nextInt(AIRCRAFT_COUNT)];
+            var bytes = new byte[RawMessage.LENGTH];
+            bytes[0] = (byte) 0x8D;
+            bytes[1] = (byte) (address >>> 16);
+            bytes[2] = (byte) (address >>> 8);
+            bytes[3] = (byte) address;
+            messages[i] = new RawMessage(i, new ByteString(bytes));
+        }
+
+        var stringStates = new HashMap<StringIcaoAddress, Object>();
+        var hashStates = new HashMap<IcaoAddress, Object>();
+        var intStates = new IcaoAddressMap<Object>();
+        for (var address : addresses) {
+            var state = new Object();
+            stringStates.put(new StringIcaoAddress(HexFormat.of().withUpperCase().toHexDigits(address, 6)), state);
+            hashStates.put(IcaoAddress.of(address), state);
+            intStates.put(address, state);
+        }
+
+        var benchmark = new Benchmark("icao-address", WARMUP_ITERATIONS, MEASUREMENT_ITERATIONS);
+        benchmark.run("String address + HashMap.get", "messages/s", () -> {
+            var found = 0L;
+            for (var message : messages) {
+                if (stringStates.get(StringIcaoAddress.of(message)) != null) found += 1;
+            }
+            return found;
+        });
+        benchmark.run("RawMessage.icaoAddress + HashMap.get", "messages/s", () -> {
+            var found = 0L;
+            for (var message : messages) {
+                if (hashStates.get(message.icaoAddress()) != null) found += 1;
+            }
+            return found;
+        });
+        benchmark.run("RawMessage.icaoAddressInt + IcaoAddressMap.get", "messages/s", () -> {
+            var found = 0L;
+            for (var message : messages) {
+                if (intStates.get(message.icaoAddressInt()) != null) found += 1;
+            }
+            return found;
+        });
+
+        if (jsonFile != null) {
+            benchmark.writeJson(jsonFile);
+        } else {
+            var writer = new OutputStreamWriter(System.out, UTF_8);
+            benchmark.writeJson(writer);
+            writer.flush();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package ch.epfl.javions.benchmark;
+
+import ch.epfl.javions.ByteString;
+import ch.epfl.javions.adsb.AirbornePositionMessage;
+import ch.epfl.javions.adsb.AirborneVelocityMessage;
+import ch.epfl.javions.adsb.AircraftIdentificationMessage;
+import ch.epfl.javions.adsb.LazyAirbornePositionMessage;
+import ch.epfl.javions.adsb.LazyAirborneVelocityMessage;
+import ch.epfl.javions.adsb.LazyAircraftIdentificationMessage;
+import ch.epfl.javions.adsb.Message;
+import ch.epfl.javions.adsb.MessageParser;
+import ch.epfl.javions.adsb.RawMessage;
+import ch.epfl.javions.aircraft.IcaoAddress;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Cost of parsing messages eagerly, with {@link MessageParser#parse(RawMessage)}, or lazily, with
+ * {@link MessageParser#parseLazily(RawMessage)}, when all their fields are used, when only the
+ * messages of a few aircraft are kept (filtering), and when only altitudes are used (replay).
+ * <p>
+ * Usage: {@code MessageDecodingBenchmark [--json results.json]}.
+ */
+public final class MessageDecodingBenchmark {
+    private static final int MESSAGES_COUNT = 1 << 18;
+    private static final int AIRCRAFT_COUNT = 400;
+    // One aircraft out of this number is kept by the filtering cases.
+    private static final int FILTERED_AIRCRAFT_RATIO = 16;
+
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASUREMENT_ITERATIONS = 10;
+
+    private static final String CALL_SIGN_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+
+    private MessageDecodingBenchmark() {}
+
+    public static void main(String[] args) throws IOException {
+        Path jsonFile = null;
+        for (var i = 0; i < args.length; i += 1) {
+            if (args[i].equals("--json")) jsonFile = Path.of(args[++i]);
+        }
+
+        var random = new Random(2023);
+        var addresses = new int[AIRCRAFT_COUNT];
+        for (var i = 0; i < AIRCRAFT_COUNT; i += 1) addresses[i] = random.nextInt(1 << IcaoAddress.SIZE);
+        var messages = new RawMessage[MESSAGES_COUNT];
+        for (var i = 0; i < MESSAGES_COUNT; i += 1)
+            messages[i] = randomMessage(random, i, addresses[random.nextInt(AIRCRAFT_COUNT)]);
+
+        var benchmark = new Benchmark("message-decoding", WARMUP_ITERATIONS, MEASUREMENT_ITERATIONS);
+        benchmark.run("MessageParser.parse, all fields", "messages/s", () -> {
+            var sum = 0d;
+            for (var rawMessage : messages) sum += allFields(MessageParser.parse(rawMessage));
+            Benchmark.consume(Double.doubleToLongBits(sum));
+            return MESSAGES_COUNT;
+        });
+        benchmark.run("MessageParser.parseLazily, all fields", "messages/s", () -> {
+            var sum = 0d;
+            for (var rawMessage : messages) sum += allFields(MessageParser.parseLazily(rawMessage));
+            Benchmark.consume(Double.doubleToLongBits(sum));
+            return MESSAGES_COUNT;
+        });
+        benchmark.run("MessageParser.parse, filtering", "messages/s", () -> {
+            var sum = 0d;
+            for (var rawMessage : messages) {
+                var message = MessageParser.parse(rawMessage);
+                if (message != null && isFiltered(message)) sum += allFields(message);
+            }
+            Benchmark.consume(Double.doubleToLongBits(sum));
+            return MESSAGES_COUNT;
+        });
+        benchmark.run("MessageParser.parseLazily, filtering", "messages/s", () -> {
+            var sum = 0d;
+            for (var rawMessage : messages) {
+                var message = MessageParser.parseLazily(rawMessage);
+                if (message != null && isFiltered(message)) sum += allFields(message);
+            }
+            Benchmark.consume(Double.doubleToLongBits(sum));
+            return MESSAGES_COUNT;
+        });
+        benchmark.run("MessageParser.parse, replay altitudes", "messages/s", () -> {
+            var sum = 0d;
+            for (var rawMessage : messages) {
+                if (MessageParser.parse(rawMessage) instanceof AirbornePositionMessage m) sum += m.altitude();
+            }
+            Benchmark.consume(Double.doubleToLongBits(sum));
+            return MESSAGES_COUNT;
+        });
+        benchmark.run("MessageParser.parseLazily, replay altitudes", "messages/s", () -> {
+            var sum = 0d;
+            for (var rawMessage : messages) {
+                if (MessageParser.parseLazily(rawMessage) instanceof LazyAirbornePositionMessage m
+                        && m.isValid()) {
+                    sum += m.altitude();
+                }
+            }
+            Benchmark.consume(Double.doubleToLongBits(sum));
+            return MESSAGES_COUNT;
+        });
+
+        if (jsonFile != null) {
+            benchmark.writeJson(jsonFile);
+        } else {
+            var writer = new OutputStreamWriter(System.out, UTF_8);
+            benchmark.writeJson(writer);
+            writer.flush();
+        }
+    }
+
+    private static boolean isFiltered(Message message) {
+        return message.icaoAddress().value() % FILTERED_AIRCRAFT_RATIO == 0;
+    }
+
+    // Returns a value depending on all the fields of the given message, or 0 if it is null or
+    // invalid.
+    private static double allFields(Message message) {
+        return switch (message) {
+            case AircraftIdentificationMessage m -> m.category() + m.callSign().string().length();
+            case AirbornePositionMessage m -> m.altitude() + m.parity() + m.x() + m.y();
+            case AirborneVelocityMessage m -> m.speed() + m.trackOrHeading();
+            case LazyAircraftIdentificationMessage m ->
+                    m.isValid() ? m.category() + m.callSign().string().length() : 0;
+            case LazyAirbornePositionMessage m ->
+                    m.isValid() ? m.altitude() + m.parity() + m.x() + m.y() : 0;
+            case LazyAirborneVelocityMessage m -> m.isValid() ? m.speed() + m.trackOrHeading() : 0;
+            case null, default -> 0;
+        };
+    }
+
+    // Returns an extended squitter of the given aircraft, which is an identification, a position
+    // or a velocity message, in the proportions usually received.
+    private static RawMessage randomMessage(Random random, long timeStampNs, int address) {
+        var kind = random.nextInt(10);
+        long payload;
+        if (kind == 0) {
+            // Each aircraft always sends the same call sign.
+            var callSignRandom = new Random(address);
+            payload = 4L << 51 | (long) random.nextInt(8) << 48;
+            for (var i = 0; i < 8; i += 1) {
+                var c = CALL_SIGN_CHARS.charAt(callSignRandom.nextInt(CALL_SIGN_CHARS.length()));
+                var code = c <= '9' ? c : c - 'A' + 1;
+                payload |= (long) code << (42 - 6 * i);
+            }
+        } else if (kind <= 5) {
+            // Mostly altitudes in 25 feet steps, some Gillham-coded ones.
+            var altitude = random.nextInt(1 << 12);
+            if (random.nextInt(10) != 0) altitude |= 1 << 4;
+            payload = 11L << 51 | (long) altitude << 36 | random.nextLong() & ((1L << 35) - 1);
+        } else {
+            payload = 19L << 51 | 1L << 48 | random.nextLong() & ((1L << 43) - 1);
+        }
+
+        var bytes = new byte[RawMessage.LENGTH];
+        bytes[0] = (byte) 0x8D;
+        bytes[1] = (byte) (address >>> 16);
+        bytes[2] = (byte) (address >>> 8);
+        bytes[3] = (byte) address;
+        for (var i = 0; i < 7; i += 1) bytes[4 + i] = (byte) (payload >>> (48 - 8 * i));
+        return new RawMessage(timeStampNs, new ByteString(bytes));
+    }
+}
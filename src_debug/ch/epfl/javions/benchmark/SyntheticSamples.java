@@ -0,0 +1,76 @@
+package ch.epfl.javions.benchmark;
+
+import ch.epfl.javions.Crc24;
+import ch.epfl.javions.Preconditions;
+
+import java.util.Random;
+
+/**
+ * Generator of AirSpy-like raw sample files containing valid ADS-B (DF17) messages.
+ */
+public final class SyntheticSamples {
+    // Raw samples are 12-bit unsigned values stored as little-endian shorts, biased by 2048.
+    private static final int BIAS = 1 << 11;
+    private static final int BYTES_PER_POWER_SAMPLE = 2 * Short.BYTES;
+
+    private static final int PULSE_WIDTH = 5;
+    private static final int BIT_WIDTH = 2 * PULSE_WIDTH;
+    private static final int PREAMBLE_WIDTH = 8 * BIT_WIDTH;
+    private static final int[] PREAMBLE_PULSES = {0, 2 * PULSE_WIDTH, 7 * PULSE_WIDTH, 9 * PULSE_WIDTH};
+
+    private static final int MESSAGE_LENGTH = 14;
+    private static final int MESSAGE_WIDTH = PREAMBLE_WIDTH + MESSAGE_LENGTH * Byte.SIZE * BIT_WIDTH;
+
+    private static final Crc24 CRC_24 = new Crc24(Crc24.GENERATOR);
+
+    private SyntheticSamples() {}
+
+    /**
+     * Returns the bytes of a sample file covering the given number of power samples, containing
+     * the given number of evenly spaced messages, over a background of uniform noise.
+     */
+    public static byte[] generate(int powerSamples, int messageCount, long seed) {
+        Preconditions.checkArgument(powerSamples > 0 && messageCount >= 0);
+        var spacing = messageCount == 0 ? 0 : powerSamples / messageCount;
+        Preconditions.checkArgument(messageCount == 0 || spacing >= 2 * MESSAGE_WIDTH);
+
+        var rng = new Random(seed);
+        var pulses = new boolean[powerSamples];
+        for (var m = 0; m < messageCount; m += 1)
+            addMessage(pulses, m * spacing + rng.nextInt(spacing - MESSAGE_WIDTH), randomMessage(rng));
+
+        var bytes = new byte[powerSamples * BYTES_PER_POWER_SAMPLE];
+        for (var n = 0; n < 2 * powerSamples; n += 1) {
+            // A pulse is a carrier at a quarter of the sampling frequency: +A, 0, -A, 0, ...
+            var carrier = (n & 1) == 1 ? 0 : (n & 2) == 0 ? 1_500 : -1_500;
+            var sample = (pulses[n / 2] ? carrier : 0) + rng.nextInt(41) - 20 + BIAS;
+            bytes[2 * n] = (byte) sample;
+            bytes[2 * n + 1] = (byte) (sample >> Byte.SIZE);
+        }
+        return bytes;
+    }
+
+    private static byte[] randomMessage(Random rng) {
+        var message = new byte[MESSAGE_LENGTH];
+        rng.nextBytes(message);
+        message[0] = (byte) 0x8D; // DF 17, CA 5
+        message[4] = (byte) ((message[4] & 0x07) | (11 << 3)); // Airborne position
+        var crc = CRC_24.crc(message, 0, MESSAGE_LENGTH - 3);
+        message[11] = (byte) (crc >> 16);
+        message[12] = (byte) (crc >> 8);
+        message[13] = (byte) crc;
+        return message;
+    }
+
+    private static void addMessage(boolean[] pulses, int start, byte[] message) {
+        for (var pulse : PREAMBLE_PULSES) fill(pulses, start + pulse);
+        for (var i = 0; i < message.length * Byte.SIZE; i += 1) {
+            var bit = (message[i / Byte.SIZE] >> (Byte.SIZE - 1 - i % Byte.SIZE)) & 1;
+            fill(pulses, start + PREAMBLE_WIDTH + i * BIT_WIDTH + (bit == 1 ? 0 : PULSE_WIDTH));
+        }
+    }
+
+    private static void fill(boolean[] pulses, int start) {
+        for (var i = start; i < start + PULSE_WIDTH; i += 1) pulses[i] = true;
+    }
+}
@@ -0,0 +1,24 @@
+package ch.epfl.javions.tools;
+
+import ch.epfl.javions.aircraft.MappedAircraftDatabase;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Converts the aircraft database from the zip file where it is distributed to the binary file read
+ * by {@link MappedAircraftDatabase}.
+ * <p>
+ * Usage: {@code AircraftDatabaseConverter aircraft.zip aircraft.bin}.
+ */
+public final class AircraftDatabaseConverter {
+    private AircraftDatabaseConverter() {}
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: AircraftDatabaseConverter <zip file> <binary file>");
+            System.exit(1);
+        }
+        MappedAircraftDatabase.convert(args[0], Path.of(args[1]));
+    }
+}
@@ -0,0 +1,129 @@
+package ch.epfl.javions;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Random;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Crc24Test {
+    private static final int MAX_LENGTH = 40;
+    private static final int MESSAGES_PER_LENGTH = 2_000;
+
+    @Test
+    void crc24IsZeroForValidMessages() {
+        var crc24 = new Crc24(Crc24.GENERATOR);
+        for (var message : new String[]{
+                "8D392AE499107FB5C00439035DB8",
+                "8D4D2286EA428867291C08EE2EC6",
+                "8D4B17E5F8210002004BB8B1F1AC"}) {
+            assertEquals(0, crc24.crc(HexFormat.of().parseHex(message)));
+        }
+    }
+
+    @Test
+    void crc24OfMessageFollowedByItsCrcIsZero() {
+        var crc24 = new Crc24(Crc24.GENERATOR);
+        var rng = new Random(2023);
+        for (var length = 0; length <= MAX_LENGTH; length += 1) {
+            var bytes = new byte[length + 3];
+            for (var i = 0; i < MESSAGES_PER_LENGTH; i += 1) {
+                rng.nextBytes(bytes);
+                var crc = crc24.crc(bytes, 0, length);
+                bytes[length] = (byte) (crc >>> 16);
+                bytes[length + 1] = (byte) (crc >>> 8);
+                bytes[length + 2] = (byte) crc;
+                assertEquals(0, crc24.crc(bytes));
+            }
+        }
+    }
+
+    @Test
+    void crc24MatchesBitwiseCrc() {
+        for (var generator : new int[]{Crc24.GENERATOR, 0x864CFB, 0x5D6DCB, 0x000001, 0xFFFFFF}) {
+            var crc24 = new Crc24(generator);
+            for (var rng : randomGenerators()) {
+                for (var length = 0; length <= MAX_LENGTH; length += 1) {
+                    for (var i = 0; i < MESSAGES_PER_LENGTH; i += 1) {
+                        var bytes = new byte[length];
+                        rng.nextBytes(bytes);
+                        assertEquals(bitwiseCrc(generator, bytes), crc24.crc(bytes));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void crc24MatchesBitwiseCrcOnRanges() {
+        var crc24 = new Crc24(Crc24.GENERATOR);
+        var rng = new Random(2024);
+        var bytes = new byte[MAX_LENGTH];
+        for (var i = 0; i < 20 * MESSAGES_PER_LENGTH; i += 1) {
+            rng.nextBytes(bytes);
+            var fromIndex = rng.nextInt(bytes.length + 1);
+            var toIndex = fromIndex + rng.nextInt(bytes.length - fromIndex + 1);
+            var expected = bitwiseCrc(Crc24.GENERATOR, Arrays.copyOfRange(bytes, fromIndex, toIndex));
+            assertEquals(expected, crc24.crc(bytes, fromIndex, toIndex));
+        }
+    }
+
+    @Test
+    void crc24MatchesBitwiseCrcOnLongs() {
+        var crc24 = new Crc24(Crc24.GENERATOR);
+        var rng = new Random(2025);
+        for (var lowBytes = 0; lowBytes <= Long.BYTES; lowBytes += 1) {
+            for (var i = 0; i < MESSAGES_PER_LENGTH; i += 1) {
+                var high = rng.nextLong();
+                var low = rng.nextLong();
+                var bytes = ByteBuffer.allocate(Long.BYTES + lowBytes)
+                        .putLong(high)
+                        .put(ByteBuffer.allocate(Long.BYTES).putLong(low).array(), Long.BYTES - lowBytes, lowBytes)
+                        .array();
+                assertEquals(bitwiseCrc(Crc24.GENERATOR, bytes), crc24.crc(high, low, lowBytes));
+            }
+        }
+    }
+
+    @Test
+    void crc24ThrowsOnInvalidRanges() {
+        var crc24 = new Crc24(Crc24.GENERATOR);
+        var bytes = new byte[14];
+        assertThrows(IndexOutOfBoundsException.class, () -> crc24.crc(bytes, -1, 3));
+        assertThrows(IndexOutOfBoundsException.class, () -> crc24.crc(bytes, 4, 3));
+        assertThrows(IndexOutOfBoundsException.class, () -> crc24.crc(bytes, 0, 15));
+        assertThrows(IndexOutOfBoundsException.class, () -> crc24.crc(0, 0, -1));
+        assertThrows(IndexOutOfBoundsException.class, () -> crc24.crc(0, 0, 9));
+    }
+
+    private static RandomGenerator[] randomGenerators() {
+        return new RandomGenerator[]{
+                new Random(2023),
+                RandomGeneratorFactory.of("L64X128MixRandom").create(2023),
+                RandomGeneratorFactory.of("Xoshiro256PlusPlus").create(2023)
+        };
+    }
+
+    // The CRC computed one bit at a time, by polynomial division of the message followed by
+    // 24 zero bits.
+    private static int bitwiseCrc(int generator, byte[] bytes) {
+        var table = new int[]{0, generator};
+        var crc = 0;
+        for (var b : bytes) {
+            for (var i = Byte.SIZE - 1; i >= 0; i -= 1) {
+                var topBit = Bits.extractUInt(crc, 23, 1);
+                crc = ((crc << 1) | Bits.extractUInt(b, i, 1)) ^ table[topBit];
+            }
+        }
+        for (var i = 0; i < 24; i += 1) {
+            var topBit = Bits.extractUInt(crc, 23, 1);
+            crc = (crc << 1) ^ table[topBit];
+        }
+        return Bits.extractUInt(crc, 0, 24);
+    }
+}
@@ -0,0 +1,146 @@
+package ch.epfl.javions.adsb;
+
+import ch.epfl.javions.GeoPos;
+import ch.epfl.javions.Units;
+import org.junit.jupiter.api.Test;
+
+import java.util.Objects;
+import java.util.Random;
+
+import static java.lang.Math.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CprDecoderTest {
+    private static final int CPR_BITS = 17;
+    private static final int CPR_VALUES = 1 << CPR_BITS;
+
+    private static double cpr(int value) {
+        return Math.scalb((double) value, -CPR_BITS);
+    }
+
+    @Test
+    void cprDecoderDecodesKnownPosition() {
+        var position = CprDecoder.decodePosition(
+                cpr(111600), cpr(94445), cpr(108865), cpr(77558), 0);
+        assertNotNull(position);
+        assertEquals(7.476062, Units.convert(position.longitudeT32(), Units.Angle.T32, Units.Angle.DEGREE), 1e-6);
+        assertEquals(46.323349, Units.convert(position.latitudeT32(), Units.Angle.T32, Units.Angle.DEGREE), 1e-6);
+    }
+
+    @Test
+    void cprDecoderRejectsInvalidMostRecent() {
+        assertThrows(IllegalArgumentException.class, () -> CprDecoder.decodePosition(0, 0, 0, 0, -1));
+        assertThrows(IllegalArgumentException.class, () -> CprDecoder.decodePosition(0, 0, 0, 0, 2));
+    }
+
+    // Every even latitude, each paired with odd latitudes spread over all the latitude zones.
+    @Test
+    void cprDecoderMatchesTrigonometricDecoderForAllEvenLatitudes() {
+        var rng = new Random(2023);
+        var y1Step = CPR_VALUES / 64;
+        for (var y0 = 0; y0 < CPR_VALUES; y0 += 1) {
+            for (var y1 = rng.nextInt(y1Step); y1 < CPR_VALUES; y1 += y1Step)
+                assertSameDecoding(rng, cpr(y0), cpr(y1));
+        }
+    }
+
+    // Every odd latitude, each paired with even latitudes spread over all the latitude zones.
+    @Test
+    void cprDecoderMatchesTrigonometricDecoderForAllOddLatitudes() {
+        var rng = new Random(2024);
+        var y0Step = CPR_VALUES / 64;
+        for (var y1 = 0; y1 < CPR_VALUES; y1 += 1) {
+            for (var y0 = rng.nextInt(y0Step); y0 < CPR_VALUES; y0 += y0Step)
+                assertSameDecoding(rng, cpr(y0), cpr(y1));
+        }
+    }
+
+    @Test
+    void cprDecoderMatchesTrigonometricDecoderForRandomPositions() {
+        var rng = new Random(2025);
+        for (var i = 0; i < 4_000_000; i += 1)
+            assertSameDecoding(rng, cpr(rng.nextInt(CPR_VALUES)), cpr(rng.nextInt(CPR_VALUES)));
+    }
+
+    @Test
+    void cprDecoderMatchesTrigonometricDecoderForExtremeValues() {
+        double[] values = {0, cpr(1), 0.25, 0.5, 0.75, cpr(CPR_VALUES - 1)};
+        for (var x0 : values) {
+            for (var y0 : values) {
+                for (var x1 : values) {
+                    for (var y1 : values) {
+                        for (var mostRecent = 0; mostRecent <= 1; mostRecent += 1) {
+                            assertEquals(
+                                    TrigonometricCprDecoder.decodePosition(x0, y0, x1, y1, mostRecent),
+                                    CprDecoder.decodePosition(x0, y0, x1, y1, mostRecent));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static void assertSameDecoding(Random rng, double y0, double y1) {
+        var x0 = cpr(rng.nextInt(CPR_VALUES));
+        var x1 = cpr(rng.nextInt(CPR_VALUES));
+        var mostRecent = rng.nextInt(2);
+        var expected = TrigonometricCprDecoder.decodePosition(x0, y0, x1, y1, mostRecent);
+        var actual = CprDecoder.decodePosition(x0, y0, x1, y1, mostRecent);
+        if (!Objects.equals(expected, actual))
+            fail("decodePosition(%s, %s, %s, %s, %d): expected %s but was %s"
+                    .formatted(x0, y0, x1, y1, mostRecent, expected, actual));
+    }
+
+    // The decoder as it was before the number of longitude zones was looked up in a table.
+    private static final class TrigonometricCprDecoder {
+        private static final int LAT_ZONES_0 = 60;
+        private static final int LAT_ZONES_1 = LAT_ZONES_0 - 1;
+
+        private static final double D_LAT_0_TURN = 1d / LAT_ZONES_0;
+        private static final double D_LAT_1_TURN = 1d / LAT_ZONES_1;
+
+        private static final double LON_ZONES_NUMERATOR = 1 - cos(Units.convertFrom(D_LAT_0_TURN, Units.Angle.TURN));
+
+        static GeoPos decodePosition(double x0, double y0, double x1, double y1, int mostRecent) {
+            var latZIn = (int) rint(y0 * LAT_ZONES_1 - y1 * LAT_ZONES_0);
+            var lat0Turn = D_LAT_0_TURN * (normalizeZoneIndex(latZIn, LAT_ZONES_0) + y0);
+            var lat1Turn = D_LAT_1_TURN * (normalizeZoneIndex(latZIn, LAT_ZONES_1) + y1);
+
+            var lonZones0 = lonZones(lat0Turn);
+            if (lonZones0 != lonZones(lat1Turn)) return null;
+
+            if (lonZones0 == 1) {
+                return mostRecent == 0 ? geoPos(x0, lat0Turn) : geoPos(x1, lat1Turn);
+            } else {
+                var lonZones1 = lonZones0 - 1;
+                var lonZIn = (int) rint(x0 * lonZones1 - x1 * lonZones0);
+                return mostRecent == 0
+                        ? geoPos((normalizeZoneIndex(lonZIn, lonZones0) + x0) / lonZones0, lat0Turn)
+                        : geoPos((normalizeZoneIndex(lonZIn, lonZones1) + x1) / lonZones1, lat1Turn);
+            }
+        }
+
+        private static int lonZones(double latTurn) {
+            var cosLat = cos(Units.convertFrom(latTurn, Units.Angle.TURN));
+            var nl = floor(Units.Angle.TURN / acos(1 - LON_ZONES_NUMERATOR / (cosLat * cosLat)));
+            return Double.isNaN(nl) ? 1 : (int) nl;
+        }
+
+        private static int normalizeZoneIndex(int zIn, int zonesCount) {
+            return zIn < 0 ? zIn + zonesCount : zIn;
+        }
+
+        private static int turnToT32(double angleTurn) {
+            var centeredAngleTurn = angleTurn < 0.5 ? angleTurn : angleTurn - 1;
+            return (int) rint(Units.convert(centeredAngleTurn, Units.Angle.TURN, Units.Angle.T32));
+        }
+
+        private static GeoPos geoPos(double lonTurn, double latTurn) {
+            var lonT32 = turnToT32(lonTurn);
+            var latT32 = turnToT32(latTurn);
+            return GeoPos.isValidLatitudeT32(latT32)
+                    ? new GeoPos(lonT32, latT32)
+                    : null;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package ch.epfl.javions.demodulation;
+
+import ch.epfl.javions.benchmark.SyntheticSamples;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PowerComputerTest {
+    private static final int BATCH_SIZE = 1 << 16;
+    private static final int POWER_SAMPLES = 1 << 18;
+
+    @Test
+    void powerComputerComputesKnownPowers() throws IOException {
+        // Samples 1, 2, ..., 16, each stored little-endian, biased by 2048.
+        var bytes = new byte[16 * Short.BYTES];
+        for (var i = 0; i < 16; i += 1) {
+            var sample = i + 1 + 2048;
+            bytes[2 * i] = (byte) sample;
+            bytes[2 * i + 1] = (byte) (sample >> Byte.SIZE);
+        }
+        var powerComputer = new PowerComputer(new ByteArrayInputStream(bytes), 8);
+        var batch = new int[8];
+        assertEquals(8, powerComputer.readBatch(batch));
+        assertArrayEquals(new int[]{5, 8, 25, 32, 32, 32, 32, 32}, batch);
+    }
+
+    @Test
+    void powerComputerRejectsInvalidBatchSizes() {
+        var stream = new ByteArrayInputStream(new byte[0]);
+        assertThrows(IllegalArgumentException.class, () -> new PowerComputer(stream, 0));
+        assertThrows(IllegalArgumentException.class, () -> new PowerComputer(stream, 12));
+        assertThrows(IllegalArgumentException.class, () -> new PowerComputer(stream, 8).readBatch(new int[16]));
+    }
+
+    @Test
+    void powerComputerMatchesTwoPassComputerOnCaptures() throws IOException {
+        for (var seed = 0; seed < 4; seed += 1) {
+            var bytes = SyntheticSamples.generate(POWER_SAMPLES, 64, seed);
+            assertSamePowers(bytes, BATCH_SIZE);
+            assertSamePowers(bytes, 1 << 10);
+        }
+    }
+
+    // Captures are made of whole samples, so they are only truncated between two of them.
+    @Test
+    void powerComputerMatchesTwoPassComputerOnTruncatedCaptures() throws IOException {
+        var bytes = SyntheticSamples.generate(POWER_SAMPLES, 64, 2023);
+        var rng = new Random(2023);
+        for (var i = 0; i < 32; i += 1) {
+            var length = rng.nextInt(bytes.length) & -Short.BYTES;
+            assertSamePowers(Arrays.copyOf(bytes, length), BATCH_SIZE);
+            assertSamePowers(Arrays.copyOf(bytes, length), 8);
+        }
+        for (var length = 0; length <= 64; length += Short.BYTES)
+            assertSamePowers(Arrays.copyOf(bytes, length), 8);
+    }
+
+    // Random bytes, many of which aren't 12-bit samples.
+    @Test
+    void powerComputerMatchesTwoPassComputerOnRandomBytes() throws IOException {
+        var rng = new Random(2024);
+        for (var i = 0; i < 8; i += 1) {
+            var bytes = new byte[rng.nextInt(POWER_SAMPLES) & -Short.BYTES];
+            rng.nextBytes(bytes);
+            assertSamePowers(bytes, BATCH_SIZE);
+        }
+    }
+
+    @Test
+    void powerComputerMatchesTwoPassComputerOnSlowStreams() throws IOException {
+        var bytes = SyntheticSamples.generate(POWER_SAMPLES, 64, 2025);
+        var expected = twoPassPowers(new ByteArrayInputStream(bytes), BATCH_SIZE);
+        assertArrayEquals(expected, powers(new PowerComputer(new SlowInputStream(bytes, 7), BATCH_SIZE), BATCH_SIZE));
+    }
+
+    @Test
+    void powerComputerOnSamplesMatchesTwoPassComputer() throws IOException {
+        var bytes = SyntheticSamples.generate(POWER_SAMPLES, 64, 2026);
+        var expected = twoPassPowers(new ByteArrayInputStream(bytes), BATCH_SIZE);
+        var samplesDecoder = new SamplesDecoder(new ByteArrayInputStream(bytes), 2 * BATCH_SIZE);
+        assertArrayEquals(expected, powers(new PowerComputer(samplesDecoder, BATCH_SIZE), BATCH_SIZE));
+    }
+
+    @Test
+    void samplesDecoderMatchesBytewiseDecoder() throws IOException {
+        var rng = new Random(2027);
+        var bytes = new byte[1 << 16];
+        rng.nextBytes(bytes);
+        var samplesDecoder = new SamplesDecoder(new ByteArrayInputStream(bytes), 1 << 10);
+        var batch = new short[1 << 10];
+        var decoded = 0;
+        for (var count = samplesDecoder.readBatch(batch); count > 0; count = samplesDecoder.readBatch(batch)) {
+            for (var i = 0; i < count; i += 1) {
+                var lsb = Byte.toUnsignedInt(bytes[2 * decoded]);
+                var msb = Byte.toUnsignedInt(bytes[2 * decoded + 1]);
+                assertEquals((short) ((msb << Byte.SIZE | lsb) - 2048), batch[i]);
+                decoded += 1;
+            }
+        }
+        assertEquals(bytes.length / Short.BYTES, decoded);
+    }
+
+    private static void assertSamePowers(byte[] bytes, int batchSize) throws IOException {
+        var expected = twoPassPowers(new ByteArrayInputStream(bytes), batchSize);
+        var actual = powers(new PowerComputer(new ByteArrayInputStream(bytes), batchSize), batchSize);
+        assertArrayEquals(expected, actual, "powers of " + bytes.length + " bytes");
+    }
+
+    // Returns all the powers computed by the given computer, the last batch being complete, as
+    // it is seen by the demodulator.
+    private static int[] powers(PowerSource powerSource, int batchSize) throws IOException {
+        var powers = IntStream.builder();
+        var batch = new int[batchSize];
+        int count;
+        do {
+            count = powerSource.readBatch(batch);
+            for (var power : batch) powers.add(power);
+        } while (count == batchSize);
+        return powers.build().toArray();
+    }
+
+    // The powers computed as before, by decoding all the samples of a batch and then filtering
+    // them.
+    private static int[] twoPassPowers(InputStream stream, int batchSize) throws IOException {
+        var bytes = new byte[batchSize * 2 * Short.BYTES];
+        var samples = new short[batchSize * 2];
+        var window = new int[8];
+        int iSum = 0, qSum = 0;
+
+        var powers = IntStream.builder();
+        var batch = new int[batchSize];
+        int powerI;
+        do {
+            var samplesRead = stream.readNBytes(bytes, 0, bytes.length) / Short.BYTES;
+            for (var sampleI = 0; sampleI < samplesRead; sampleI += 1) {
+                var lsb = Byte.toUnsignedInt(bytes[2 * sampleI]);
+                var msb = Byte.toUnsignedInt(bytes[2 * sampleI + 1]);
+                samples[sampleI] = (short) ((msb << Byte.SIZE | lsb) - 2048);
+            }
+
+            powerI = 0;
+            var sampleI = 0;
+            while (sampleI < samplesRead) {
+                for (var j = 0; j < 8; j += 2) {
+                    var sign = j % 4 == 0 ? 1 : -1;
+                    iSum += sign * (samples[sampleI] - window[j]);
+                    qSum += sign * (samples[sampleI + 1] - window[j + 1]);
+                    window[j] = samples[sampleI];
+                    window[j + 1] = samples[sampleI + 1];
+                    sampleI += 2;
+                    batch[powerI++] = iSum * iSum + qSum * qSum;
+                }
+            }
+
+            for (var power : batch) powers.add(power);
+        } while (powerI == batchSize);
+        return powers.build().toArray();
+    }
+
+    // A stream returning at most the given number of bytes at each read.
+    private static final class SlowInputStream extends FilterInputStream {
+        private final int maxRead;
+
+        SlowInputStream(byte[] bytes, int maxRead) {
+            super(new ByteArrayInputStream(bytes));
+            this.maxRead = maxRead;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            return super.read(bytes, offset, Math.min(length, maxRead));
+        }
+    }
+}